@@ -17,7 +17,6 @@
 package com.palantir.metric.schema.gradle;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.google.common.base.Preconditions;
 import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.markdown.MarkdownRenderer;
 import java.io.File;
@@ -62,7 +61,6 @@ public abstract class CheckMetricMarkdownTask extends DefaultTask {
         }
 
         File markdown = getMarkdownFile().get().getAsFile();
-        String upToDateContents = MarkdownRenderer.render(getLocalCoordinates().get(), schemas);
 
         if (!markdown.exists()) {
             throw new GradleException(String.format(
@@ -70,12 +68,17 @@ public abstract class CheckMetricMarkdownTask extends DefaultTask {
                             + "`./gradlew --write-locks` and commit the resultant file",
                     markdown.getName(), getName()));
         } else {
-            String fromDisk = Files.readString(markdown.toPath().toAbsolutePath());
-            Preconditions.checkState(
-                    fromDisk.equals(upToDateContents),
-                    "%s is out of date, please run `./gradlew %s` or `./gradlew --write-locks` to update it.",
-                    markdown.getName(),
-                    GenerateMetricMarkdownTask.NAME);
+            // Stream the rendered markdown against the file on disk rather than materializing both documents.
+            try (ComparingWriter writer =
+                    new ComparingWriter(Files.newBufferedReader(markdown.toPath().toAbsolutePath()))) {
+                MarkdownRenderer.render(getLocalCoordinates().get(), schemas, writer);
+                writer.finish();
+            } catch (ComparingWriter.DifferenceException e) {
+                throw new IllegalStateException(String.format(
+                        "%s is out of date, please run `./gradlew %s` or `./gradlew --write-locks` to update it. "
+                                + "First difference on line %d.",
+                        markdown.getName(), GenerateMetricMarkdownTask.NAME, e.line()));
+            }
         }
     }
 
@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.gradle;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+
+/**
+ * {@link Writer} which compares everything written to it against the contents of a {@link Reader}, so that a generated
+ * file can be checked without holding either copy in memory. Writing fails with a {@link DifferenceException} as soon
+ * as the contents diverge.
+ */
+final class ComparingWriter extends Writer {
+
+    private final Reader expected;
+    private final char[] buffer = new char[8192];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    ComparingWriter(Reader expected) {
+        this.expected = expected;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        for (int i = off; i < off + len; i++) {
+            if (!fill() || buffer[position] != cbuf[i]) {
+                throw new DifferenceException(line);
+            }
+            if (buffer[position] == '\n') {
+                line++;
+            }
+            position++;
+        }
+    }
+
+    /** Verifies that the expected contents have no remaining characters once everything has been written. */
+    void finish() throws IOException {
+        if (fill()) {
+            throw new DifferenceException(line);
+        }
+    }
+
+    /** Returns true if at least one expected character is buffered. */
+    private boolean fill() throws IOException {
+        while (position == limit) {
+            int read = expected.read(buffer);
+            if (read < 0) {
+                return false;
+            }
+            position = 0;
+            limit = read;
+        }
+        return true;
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() throws IOException {
+        expected.close();
+    }
+
+    /** Thrown when the written contents differ from the expected contents. */
+    static final class DifferenceException extends IOException {
+        private final int line;
+
+        DifferenceException(int line) {
+            super("Contents differ on line " + line);
+            this.line = line;
+        }
+
+        /** One-based line number of the first difference. */
+        int line() {
+            return line;
+        }
+    }
+}
@@ -17,9 +17,12 @@
 package com.palantir.metric.schema.gradle;
 
 import com.google.common.collect.ImmutableSet;
+import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.lang.MetricSchemaCompiler;
 import java.io.File;
 import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
@@ -52,11 +55,9 @@ public abstract class CompileMetricSchemaTask extends DefaultTask {
 
     @TaskAction
     public final void action() throws IOException {
-        ObjectMappers.mapper.writeValue(
-                getMetricsJsonFile().get().getAsFile(),
-                getSource().getFiles().stream()
-                        .map(File::toPath)
-                        .map(MetricSchemaCompiler::compile)
-                        .collect(ImmutableSet.toImmutableSet()));
+        // Every file is validated before failing, so that a single build reports all violations.
+        List<MetricSchema> schemas = MetricSchemaCompiler.compileAll(
+                getSource().getFiles().stream().map(File::toPath).collect(Collectors.toList()));
+        ObjectMappers.mapper.writeValue(getMetricsJsonFile().get().getAsFile(), ImmutableSet.copyOf(schemas));
     }
 }
@@ -20,6 +20,7 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.io.Files;
 import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.lang.MetricNameIndex;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -33,6 +34,7 @@ import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
 import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ResolvedArtifact;
@@ -63,6 +65,8 @@ public class CreateMetricsManifestTask extends DefaultTask {
     private final Property<Configuration> configuration =
             getProject().getObjects().property(Configuration.class);
     private final RegularFileProperty outputFile = getProject().getObjects().fileProperty();
+    private final Property<Boolean> failOnDependencyDuplicates =
+            getProject().getObjects().property(Boolean.class).convention(false);
 
     @InputFiles
     public final Provider<FileCollection> getProjectDependencyMetrics() {
@@ -88,6 +92,15 @@ public class CreateMetricsManifestTask extends DefaultTask {
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * Fails the build when two dependencies define the same metric name with different types, rather than logging a
+     * warning. Clashes with the metrics of this project always fail the build.
+     */
+    @Input
+    public final Property<Boolean> getFailOnDependencyDuplicates() {
+        return failOnDependencyDuplicates;
+    }
+
     @OutputFile
     public final RegularFileProperty getOutputFile() {
         return outputFile;
@@ -131,12 +144,32 @@ public class CreateMetricsManifestTask extends DefaultTask {
 
     @TaskAction
     public final void createManifest() throws IOException {
-        ObjectMappers.mapper.writeValue(
-                getOutputFile().get().getAsFile(),
-                ImmutableMap.builder()
-                        .putAll(getLocalMetrics())
-                        .putAll(getDiscoveredMetrics())
-                        .buildOrThrow());
+        Map<String, List<MetricSchema>> manifest = ImmutableMap.<String, List<MetricSchema>>builder()
+                .putAll(getLocalMetrics())
+                .putAll(getDiscoveredMetrics())
+                .buildOrThrow();
+        checkDuplicateMetrics(getProjectCoordinates(getProject()), manifest);
+        ObjectMappers.mapper.writeValue(getOutputFile().get().getAsFile(), manifest);
+    }
+
+    /**
+     * Fails if this project and another coordinate register the same metric name with different types, which collide
+     * at runtime. Clashes between two dependencies cannot be fixed here, so they only warn unless opted in.
+     */
+    private void checkDuplicateMetrics(String localCoordinates, Map<String, List<MetricSchema>> manifest) {
+        MetricNameIndex index = MetricNameIndex.allowingSameType();
+        manifest.forEach((coordinates, schemas) -> schemas.forEach(schema -> index.add(coordinates, schema)));
+        List<String> dependencyDuplicates = index.checkSources(Set.of(localCoordinates));
+        if (dependencyDuplicates.isEmpty()) {
+            return;
+        }
+        if (failOnDependencyDuplicates.get()) {
+            throw new GradleException(String.format(
+                    "Dependencies define duplicate metric names with different types:%n%s",
+                    String.join(System.lineSeparator(), dependencyDuplicates)));
+        }
+        dependencyDuplicates.forEach(duplicate ->
+                log.warn("Dependencies define a duplicate metric name with a different type: {}", duplicate));
     }
 
     private Map<String, List<MetricSchema>> getLocalMetrics() {
@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.gradle;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.collect.ImmutableList;
+import com.palantir.metric.schema.MetricDefinition;
+import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.TagDefinition;
+import com.palantir.metric.schema.TagValue;
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.tasks.CacheableTask;
+import org.gradle.api.tasks.InputFile;
+import org.gradle.api.tasks.OutputFile;
+import org.gradle.api.tasks.PathSensitive;
+import org.gradle.api.tasks.PathSensitivity;
+import org.gradle.api.tasks.TaskAction;
+
+/**
+ * Writes a flat catalog of every metric in the manifest as newline-delimited JSON, one object per metric, so that
+ * tooling can load it without parsing markdown. Coordinates, namespaces and metrics are sorted so that the output is
+ * deterministic.
+ */
+@CacheableTask
+public abstract class GenerateMetricCatalogTask extends DefaultTask {
+
+    static final String NAME = "generateMetricsCatalog";
+
+    @InputFile
+    @PathSensitive(PathSensitivity.RELATIVE)
+    public abstract RegularFileProperty getManifestFile();
+
+    @OutputFile
+    public abstract RegularFileProperty getCatalogFile();
+
+    @TaskAction
+    public final void generate() throws IOException {
+        File manifest = getManifestFile().getAsFile().get();
+        File catalog = getCatalogFile().get().getAsFile();
+
+        Map<String, List<MetricSchema>> schemas = ObjectMappers.mapper.readValue(manifest, new TypeReference<>() {});
+        try (Writer writer = Files.newBufferedWriter(catalog.toPath());
+                JsonGenerator generator = ObjectMappers.mapper.getFactory().createGenerator(writer)) {
+            generator.setRootValueSeparator(null);
+            for (Map.Entry<String, List<MetricSchema>> entry : new TreeMap<>(schemas).entrySet()) {
+                for (MetricSchema schema : entry.getValue()) {
+                    for (Map.Entry<String, MetricNamespace> namespace :
+                            new TreeMap<>(schema.getNamespaces()).entrySet()) {
+                        for (Map.Entry<String, MetricDefinition> metric :
+                                new TreeMap<>(namespace.getValue().getMetrics()).entrySet()) {
+                            writeMetric(
+                                    generator,
+                                    entry.getKey(),
+                                    namespace.getKey(),
+                                    namespace.getValue(),
+                                    metric.getKey(),
+                                    metric.getValue());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static void writeMetric(
+            JsonGenerator generator,
+            String coordinates,
+            String namespaceName,
+            MetricNamespace namespace,
+            String metricName,
+            MetricDefinition metric)
+            throws IOException {
+        List<TagDefinition> tags = ImmutableList.<TagDefinition>builder()
+                .addAll(namespace.getTags())
+                .addAll(metric.getTagDefinitions())
+                .build();
+        generator.writeStartObject();
+        generator.writeStringField("name", namespaceName + '.' + metricName);
+        generator.writeStringField("type", metric.getType().toString().toLowerCase(Locale.ENGLISH));
+        generator.writeArrayFieldStart("tags");
+        for (TagDefinition tag : tags) {
+            generator.writeString(tag.getName());
+        }
+        for (String tag : metric.getTags()) {
+            generator.writeString(tag);
+        }
+        generator.writeEndArray();
+        generator.writeObjectFieldStart("tagValues");
+        for (TagDefinition tag : tags) {
+            if (!tag.getValues().isEmpty()) {
+                generator.writeArrayFieldStart(tag.getName());
+                for (TagValue value : tag.getValues()) {
+                    generator.writeString(value.getValue());
+                }
+                generator.writeEndArray();
+            }
+        }
+        generator.writeEndObject();
+        if (metric.getSampleRate().isPresent()) {
+            generator.writeNumberField("sampleRate", metric.getSampleRate().getAsDouble());
+        }
+        generator.writeStringField("docs", metric.getDocs().get());
+        generator.writeStringField("source", coordinates);
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+}
@@ -21,6 +21,7 @@ import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.markdown.MarkdownRenderer;
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.nio.file.Files;
 import java.util.List;
 import java.util.Map;
@@ -63,8 +64,9 @@ public abstract class GenerateMetricMarkdownTask extends DefaultTask {
             return;
         }
 
-        String upToDateContents = MarkdownRenderer.render(getLocalCoordinates().get(), schemas);
-        Files.writeString(markdown.toPath(), upToDateContents);
+        try (Writer writer = Files.newBufferedWriter(markdown.toPath())) {
+            MarkdownRenderer.render(getLocalCoordinates().get(), schemas, writer);
+        }
     }
 
     private static boolean isEmpty(Map<String, List<MetricSchema>> schemas) {
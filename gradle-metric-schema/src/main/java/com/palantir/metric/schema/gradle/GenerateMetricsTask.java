@@ -20,13 +20,18 @@ import com.google.common.io.MoreFiles;
 import com.google.common.io.RecursiveDeleteOption;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.metric.schema.GeneratedUtility;
 import com.palantir.metric.schema.JavaGenerator;
 import com.palantir.metric.schema.JavaGeneratorArgs;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
@@ -55,6 +60,21 @@ public abstract class GenerateMetricsTask extends DefaultTask {
     @org.gradle.api.tasks.Optional
     public abstract Property<String> getLibraryVersion();
 
+    /** Fails the build when a namespace generates more classes, including nested types. */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public abstract Property<Integer> getMaxClassesPerNamespace();
+
+    /** Fails the build when a namespace generates more methods. */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public abstract Property<Integer> getMaxMethodsPerNamespace();
+
+    /** Fails the build when a namespace generates a larger source file. */
+    @Input
+    @org.gradle.api.tasks.Optional
+    public abstract Property<Long> getMaxSourceBytesPerNamespace();
+
     @OutputDirectory
     public abstract DirectoryProperty getOutputDir();
 
@@ -64,7 +84,7 @@ public abstract class GenerateMetricsTask extends DefaultTask {
         clearOutput(output.toPath());
         getProject().mkdir(output);
 
-        JavaGenerator.generate(JavaGeneratorArgs.builder()
+        List<GeneratedUtility> utilities = JavaGenerator.generateUtilities(JavaGeneratorArgs.builder()
                 .input(getInputFile().getAsFile().get().toPath())
                 .output(output.toPath())
                 .libraryName(Optional.ofNullable(getLibraryName().getOrNull()))
@@ -72,6 +92,54 @@ public abstract class GenerateMetricsTask extends DefaultTask {
                 // TODO(forozco): probably want something better
                 .defaultPackageName(getProject().getGroup().toString())
                 .build());
+        checkBudgets(utilities);
+    }
+
+    private void checkBudgets(List<GeneratedUtility> utilities) {
+        // Budgets apply to namespace utilities, tag value set enums are shared and sized by their values alone.
+        List<GeneratedUtility> namespaceUtilities = utilities.stream()
+                .filter(utility -> !utility.tagValueSet())
+                .collect(Collectors.toList());
+        List<String> violations = new ArrayList<>();
+        for (GeneratedUtility utility : namespaceUtilities) {
+            getLogger()
+                    .info(
+                            "Generated {} with {} classes, {} methods and {} bytes of source",
+                            utility.className(),
+                            utility.classCount(),
+                            utility.methodCount(),
+                            utility.sourceBytes());
+            checkBudget(violations, utility, "classes", utility.classCount(), getMaxClassesPerNamespace());
+            checkBudget(violations, utility, "methods", utility.methodCount(), getMaxMethodsPerNamespace());
+            checkBudget(violations, utility, "source bytes", utility.sourceBytes(), getMaxSourceBytesPerNamespace());
+        }
+        getLogger()
+                .info(
+                        "Generated {} metric utilities with {} classes, {} methods and {} bytes of source, and {} tag "
+                                + "value set enums",
+                        namespaceUtilities.size(),
+                        namespaceUtilities.stream().mapToInt(GeneratedUtility::classCount).sum(),
+                        namespaceUtilities.stream().mapToInt(GeneratedUtility::methodCount).sum(),
+                        namespaceUtilities.stream().mapToLong(GeneratedUtility::sourceBytes).sum(),
+                        utilities.size() - namespaceUtilities.size());
+        if (!violations.isEmpty()) {
+            throw new GradleException(String.format(
+                    "Generated metric utilities exceed their budget, consider splitting namespaces or enabling the "
+                            + "javaCollapseStages option:%n%s",
+                    String.join(System.lineSeparator(), violations)));
+        }
+    }
+
+    private static void checkBudget(
+            List<String> violations,
+            GeneratedUtility utility,
+            String description,
+            long actual,
+            Property<? extends Number> budget) {
+        if (budget.isPresent() && actual > budget.get().longValue()) {
+            violations.add(String.format(
+                    "  %s has %d %s, the budget is %d", utility.className(), actual, description, budget.get()));
+        }
     }
 
     private static void clearOutput(Path outputPath) {
@@ -58,6 +58,13 @@ public final class MetricSchemaMarkdownPlugin implements Plugin<Project> {
                     task.mustRunAfter(generateMetricMarkdownTask);
                 });
 
+        project.getTasks().register(GenerateMetricCatalogTask.NAME, GenerateMetricCatalogTask.class, task -> {
+            task.setGroup(MetricSchemaPlugin.TASK_GROUP);
+            task.setDescription("Writes every metric in the manifest to a newline-delimited JSON catalog.");
+            task.getManifestFile().set(manifestFile);
+            task.getCatalogFile().set(project.getLayout().getBuildDirectory().file("metricSchema/metrics.ndjson"));
+        });
+
         project.getTasks().named(LifecycleBasePlugin.CHECK_TASK_NAME).configure(check -> {
             check.dependsOn(checkMetricsMarkdownTask);
         });
@@ -19,13 +19,15 @@ package com.palantir.metric.schema.gradle;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.lang.StringInterningModule;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
 import org.gradle.api.GradleException;
 
 final class ObjectMappers {
-    static final ObjectMapper mapper = com.palantir.conjure.java.serialization.ObjectMappers.newClientObjectMapper();
+    static final ObjectMapper mapper = com.palantir.conjure.java.serialization.ObjectMappers.newClientObjectMapper()
+            .registerModule(new StringInterningModule());
 
     static List<MetricSchema> loadMetricSchema(File file) {
         try {
@@ -91,6 +91,44 @@ class GenerateMetricMarkdownIntegrationSpec extends IntegrationSpec {
                 + "or `./gradlew --write-locks` to update it.")
     }
 
+    def 'reports the first out of date line'() {
+        expect:
+        def result1 = runTasksSuccessfully('--write-locks')
+        result1.wasExecuted(':generateMetricsMarkdown')
+
+        file('metrics.md').text = file('metrics.md').text.replace('General web server metrics.', 'Stale docs.')
+        def result2 = runTasksWithFailure(':check')
+        result2.standardError.contains("First difference on line 8.")
+    }
+
+    def 'generates metric catalog'() {
+        when:
+        // Declared out of order, the catalog sorts metrics by name.
+        file('src/main/metrics/metrics.yml').text = """
+        namespaces:
+          server:
+            docs: General web server metrics.
+            metrics:
+              worker.utilization:
+                type: gauge
+                docs: A gauge of the ratio of active workers to the number of workers.
+              response.size:
+                type: histogram
+                tags:
+                  - service-name
+                  - endpoint
+                docs: A histogram of the number of bytes written into the response.
+        """.stripIndent()
+        def result = runTasksSuccessfully(':generateMetricsCatalog')
+
+        then:
+        result.wasExecuted(':generateMetricsCatalog')
+        def lines = file('build/metricSchema/metrics.ndjson').readLines()
+        lines.size() == 2
+        lines[0].startsWith('{"name":"server.response.size","type":"histogram","tags":["service-name","endpoint"]')
+        lines[1].startsWith('{"name":"server.worker.utilization","type":"gauge","tags":[],"tagValues":{}')
+    }
+
     def 'markdown is cleaned up correctly'() {
         when:
         def result1 = runTasksSuccessfully('--write-locks')
@@ -104,6 +104,52 @@ class MetricSchemaPluginIntegrationSpec extends IntegrationSpec {
         fileExists("build/generated/sources/metricSchema/java/main/com/palantir/test/ServerMetrics.java")
     }
 
+    def 'generated code exceeding budget results in task failure'() {
+        when:
+        file('src/main/metrics/metrics.yml') << METRICS
+        buildFile << """
+        tasks.named('generateMetrics') {
+            maxClassesPerNamespace = 2
+            maxMethodsPerNamespace = 1
+        }
+        """.stripIndent()
+
+        then:
+        def result = runTasksWithFailure('generateMetrics')
+        def message = Throwables.getRootCause(result.getFailure()).getMessage()
+        message.contains("com.palantir.test.ServerMetrics has 5 classes, the budget is 2")
+        message =~ /com\.palantir\.test\.ServerMetrics has \d+ methods, the budget is 1/
+    }
+
+    def 'tag value set enums are not counted against namespace budgets'() {
+        when:
+        file('src/main/metrics/metrics.yml') << """
+        tagValueSets:
+          Outcome: [success, failure]
+        namespaces:
+          server:
+            docs: General web server metrics.
+            metrics:
+              requests:
+                type: meter
+                docs: Requests by outcome.
+                tags:
+                  - name: result
+                    valueSet: Outcome
+        """.stripIndent()
+        buildFile << """
+        tasks.named('generateMetrics') {
+            maxClassesPerNamespace = 5
+        }
+        """.stripIndent()
+
+        then:
+        def result = runTasksSuccessfully('generateMetrics', '--info')
+        fileExists("build/generated/sources/metricSchema/java/main/com/palantir/test/Outcome.java")
+        !result.standardOutput.contains("Generated com.palantir.test.Outcome with")
+        result.standardOutput.contains("and 1 tag value set enums")
+    }
+
     def 'build cache works'() {
         when:
         file("gradle.properties") << "org.gradle.caching=true"
@@ -299,6 +345,59 @@ class MetricSchemaPluginIntegrationSpec extends IntegrationSpec {
         manifest['a:a:1.0'] != null
     }
 
+    def 'createManifest fails when local metrics clash with a dependency'() {
+        setup:
+        addSubproject("foo-lib", "")
+        file('foo-lib/src/main/metrics/metric.yml') << requestsMetric('meter')
+
+        addSubproject("foo-server", """
+            dependencies {
+                implementation project(':foo-lib')
+            }
+        """.stripIndent())
+        file('foo-server/src/main/metrics/metric.yml') << requestsMetric('counter')
+
+        when:
+        def result = runTasksWithFailure(':foo-server:createMetricsManifest')
+
+        then:
+        Throwables.getRootCause(result.getFailure()).getMessage().contains(
+                'server.requests is defined as a COUNTER in com.palantir.test:foo-server:$projectVersion')
+    }
+
+    def 'createManifest warns when dependencies clash unless opted in to failing'() {
+        setup:
+        addSubproject("foo-lib", "")
+        file('foo-lib/src/main/metrics/metric.yml') << requestsMetric('meter')
+        addSubproject("bar-lib", "")
+        file('bar-lib/src/main/metrics/metric.yml') << requestsMetric('timer')
+
+        addSubproject("foo-server", """
+            dependencies {
+                implementation project(':foo-lib')
+                implementation project(':bar-lib')
+            }
+        """.stripIndent())
+
+        when:
+        def result1 = runTasksSuccessfully(':foo-server:createMetricsManifest')
+
+        then:
+        result1.standardOutput.contains('Dependencies define a duplicate metric name with a different type')
+
+        when:
+        file('foo-server/build.gradle') << """
+            tasks.named('createMetricsManifest') {
+                failOnDependencyDuplicates = true
+            }
+        """.stripIndent()
+        def result2 = runTasksWithFailure(':foo-server:createMetricsManifest')
+
+        then:
+        Throwables.getRootCause(result2.getFailure()).getMessage()
+                .contains('Dependencies define duplicate metric names with different types')
+    }
+
     def 'createManifest ignores local metrics from discovered metrics'() {
         setup:
         addSubproject("foo-lib", """
@@ -321,4 +420,16 @@ class MetricSchemaPluginIntegrationSpec extends IntegrationSpec {
         then:
         fileExists('foo-server/build/metricSchema/manifest.json')
     }
+
+    private static String requestsMetric(String type) {
+        return """
+        namespaces:
+          server:
+            docs: General web server metrics.
+            metrics:
+              requests:
+                type: ${type}
+                docs: Requests handled by the server.
+        """.stripIndent()
+    }
 }
@@ -0,0 +1,226 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests bound metric handles.
+ */
+public final class BindMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(BindMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private final TaggedMetricRegistry registry;
+
+    private BindMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static BindMetrics of(TaggedMetricRegistry registry) {
+        return new BindMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Failures by cause.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        return registry.counter(failuresMetricName(cause));
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("bind.failures")
+                .putSafeTags("cause", cause.getValue())
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Failures by cause.
+     *
+     * <p>Resolves the metric once, the returned handle may be reused for these tags.
+     */
+    @CheckReturnValue
+    public FailuresHandle bindFailures(@Safe Failures_Cause cause) {
+        MetricName metricName = failuresMetricName(cause);
+        return new FailuresHandle(metricName, registry.counter(metricName));
+    }
+
+    /**
+     * Processing time.
+     */
+    @CheckReturnValue
+    public ProcessingBuilderResultStage processing() {
+        return new ProcessingBuilder();
+    }
+
+    /**
+     * Processing time.
+     *
+     * <p>Resolves the metric once, the returned handle may be reused for these tags.
+     */
+    @CheckReturnValue
+    public ProcessingHandle bindProcessing(@Safe Processing_Result result, @Safe String otherLocator) {
+        MetricName metricName = processing().result(result).otherLocator(otherLocator).buildMetricName();
+        return new ProcessingHandle(metricName, registry.timer(metricName));
+    }
+
+    @Override
+    public String toString() {
+        return "BindMetrics{registry=" + registry + '}';
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Failures_Cause(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * Metric resolved for one combination of tags, see {@link #bindFailures}.
+     */
+    public static final class FailuresHandle {
+        private final MetricName metricName;
+
+        private final Counter metric;
+
+        private FailuresHandle(MetricName metricName, Counter metric) {
+            this.metricName = metricName;
+            this.metric = metric;
+        }
+
+        public MetricName metricName() {
+            return metricName;
+        }
+
+        public Counter metric() {
+            return metric;
+        }
+
+        public void inc(long value) {
+            metric.inc(value);
+        }
+    }
+
+    public enum Processing_Result {
+        SUCCESS("success"),
+
+        FAILURE("failure");
+
+        private final String value;
+
+        Processing_Result(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface ProcessingBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface ProcessingBuilderResultStage {
+        @CheckReturnValue
+        ProcessingBuilderOtherLocatorStage result(@Safe Processing_Result result);
+    }
+
+    public interface ProcessingBuilderOtherLocatorStage {
+        @CheckReturnValue
+        ProcessingBuildStage otherLocator(@Safe String otherLocator);
+    }
+
+    private final class ProcessingBuilder
+            implements ProcessingBuilderResultStage, ProcessingBuilderOtherLocatorStage, ProcessingBuildStage {
+        private Processing_Result result;
+
+        private String otherLocator;
+
+        @Override
+        public ProcessingBuilder result(@Safe Processing_Result result) {
+            Preconditions.checkState(this.result == null, "result is already set");
+            this.result = Preconditions.checkNotNull(result, "result is required");
+            return this;
+        }
+
+        @Override
+        public ProcessingBuilder otherLocator(@Safe String otherLocator) {
+            Preconditions.checkState(this.otherLocator == null, "otherLocator is already set");
+            this.otherLocator = Preconditions.checkNotNull(otherLocator, "otherLocator is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("bind.processing")
+                    .putSafeTags("result", result.getValue())
+                    .putSafeTags("otherLocator", otherLocator)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+
+    /**
+     * Metric resolved for one combination of tags, see {@link #bindProcessing}.
+     */
+    public static final class ProcessingHandle {
+        private final MetricName metricName;
+
+        private final Timer metric;
+
+        private ProcessingHandle(MetricName metricName, Timer metric) {
+            this.metricName = metricName;
+            this.metric = metric;
+        }
+
+        public MetricName metricName() {
+            return metricName;
+        }
+
+        public Timer metric() {
+            return metric;
+        }
+
+        public void update(long duration, TimeUnit unit) {
+            metric.update(duration, unit);
+        }
+    }
+}
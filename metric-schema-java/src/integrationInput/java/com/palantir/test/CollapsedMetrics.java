@@ -0,0 +1,89 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests factory methods in place of staged builders.
+ */
+public final class CollapsedMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(CollapsedMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private final TaggedMetricRegistry registry;
+
+    private CollapsedMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static CollapsedMetrics of(TaggedMetricRegistry registry) {
+        return new CollapsedMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Latency by method and endpoint.
+     */
+    @CheckReturnValue
+    public Timer latency(@Safe Latency_Method method, @Safe String endpoint) {
+        return registry.timer(latencyMetricName(method, endpoint));
+    }
+
+    public static MetricName latencyMetricName(@Safe Latency_Method method, @Safe String endpoint) {
+        return MetricName.builder()
+                .safeName("collapsed.latency")
+                .putSafeTags("method", method.getValue())
+                .putSafeTags("endpoint", endpoint)
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Active workers by pool.
+     */
+    public void active(@Safe String pool, Gauge<? extends Number> gauge) {
+        registry.registerWithReplacement(activeMetricName(pool), gauge);
+    }
+
+    public static MetricName activeMetricName(@Safe String pool) {
+        return MetricName.builder()
+                .safeName("collapsed.active")
+                .putSafeTags("pool", pool)
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "CollapsedMetrics{registry=" + registry + '}';
+    }
+
+    public enum Latency_Method {
+        GET("get"),
+
+        PUT("put");
+
+        private final String value;
+
+        Latency_Method(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+}
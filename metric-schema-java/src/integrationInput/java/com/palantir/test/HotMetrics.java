@@ -0,0 +1,111 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests cached hot metrics.
+ */
+public final class HotMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(HotMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName requestsMetricName = MetricName.builder()
+            .safeName("hot.requests")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private Meter requestsMetric;
+
+    private final Counter[] failuresMetric = new Counter[Failures_Cause.values().length];
+
+    private HotMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static HotMetrics of(TaggedMetricRegistry registry) {
+        return new HotMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Rate of requests.
+     *
+     * <p>Resolves the metric from the registry once and caches it. If the registry later removes or replaces the
+     * metric, the cached instance is still returned and its updates are no longer reported.
+     */
+    @CheckReturnValue
+    public Meter requests() {
+        Meter result = requestsMetric;
+        if (result == null) {
+            result = registry.meter(requestsMetricName());
+            requestsMetric = result;
+        }
+        return result;
+    }
+
+    public static MetricName requestsMetricName() {
+        return requestsMetricName;
+    }
+
+    /**
+     * Failures by cause.
+     *
+     * <p>Resolves the metric from the registry once and caches it. If the registry later removes or replaces the
+     * metric, the cached instance is still returned and its updates are no longer reported.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        Counter result = failuresMetric[cause.ordinal()];
+        if (result == null) {
+            result = registry.counter(failuresMetricName(cause));
+            failuresMetric[cause.ordinal()] = result;
+        }
+        return result;
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("hot.failures")
+                .putSafeTags("cause", cause.getValue())
+                .putSafeTags("region", "local")
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "HotMetrics{registry=" + registry + '}';
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Failures_Cause(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests deferred static initialization.
+ */
+public final class LazyMetrics {
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private final TaggedMetricRegistry registry;
+
+    private LazyMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static LazyMetrics of(TaggedMetricRegistry registry) {
+        return new LazyMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Rate of requests.
+     */
+    @CheckReturnValue
+    public Meter requests() {
+        return registry.meter(requestsMetricName());
+    }
+
+    public static MetricName requestsMetricName() {
+        return Constants.requestsMetricName;
+    }
+
+    /**
+     * Failures by cause.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        return registry.counter(failuresMetricName(cause));
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("lazy.failures")
+                .putSafeTags("cause", cause.getValue())
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", Constants.LIBRARY_VERSION)
+                .putSafeTags("javaVersion", Constants.JAVA_VERSION)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "LazyMetrics{registry=" + registry + '}';
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Failures_Cause(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    private static final class Constants {
+        private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+        private static final String LIBRARY_VERSION =
+                Objects.requireNonNullElse(LazyMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+        private static final MetricName requestsMetricName = MetricName.builder()
+                .safeName("lazy.requests")
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", Constants.LIBRARY_VERSION)
+                .putSafeTags("javaVersion", Constants.JAVA_VERSION)
+                .build();
+    }
+}
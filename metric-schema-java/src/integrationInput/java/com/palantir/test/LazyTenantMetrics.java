@@ -0,0 +1,134 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests deferred metric names for namespaces with tags.
+ */
+public final class LazyTenantMetrics {
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private final TaggedMetricRegistry registry;
+
+    private final String tenantValue;
+
+    private MetricName requestsMetricName;
+
+    private MetricName latencyMetricName;
+
+    private LazyTenantMetrics(TaggedMetricRegistry registry, String tenant) {
+        this.registry = registry;
+        this.tenantValue = tenant;
+    }
+
+    @CheckReturnValue
+    public static LazyTenantBuilderRegistryStage builder() {
+        return new LazyTenantBuilder();
+    }
+
+    /**
+     * Rate of requests.
+     */
+    @CheckReturnValue
+    public Meter requests() {
+        return registry.meter(requestsMetricName());
+    }
+
+    public MetricName requestsMetricName() {
+        MetricName result = requestsMetricName;
+        if (result == null) {
+            result = MetricName.builder()
+                    .safeName("lazy-tenant.requests")
+                    .putSafeTags("tenant", tenantValue)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", Constants.LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", Constants.JAVA_VERSION)
+                    .build();
+            requestsMetricName = result;
+        }
+        return result;
+    }
+
+    /**
+     * Request latency.
+     */
+    @CheckReturnValue
+    public Timer latency() {
+        return registry.timer(latencyMetricName());
+    }
+
+    public MetricName latencyMetricName() {
+        MetricName result = latencyMetricName;
+        if (result == null) {
+            result = MetricName.builder()
+                    .safeName("lazy-tenant.latency")
+                    .putSafeTags("tenant", tenantValue)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", Constants.LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", Constants.JAVA_VERSION)
+                    .build();
+            latencyMetricName = result;
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "LazyTenantMetrics{registry=" + registry + ", tenant=" + tenantValue + '}';
+    }
+
+    public interface LazyTenantBuildStage {
+        @CheckReturnValue
+        LazyTenantMetrics build();
+    }
+
+    public interface LazyTenantBuilderRegistryStage {
+        @CheckReturnValue
+        LazyTenantBuilderTenantStage registry(@Safe TaggedMetricRegistry registry);
+    }
+
+    public interface LazyTenantBuilderTenantStage {
+        @CheckReturnValue
+        LazyTenantBuildStage tenant(@Safe String tenant);
+    }
+
+    private static final class LazyTenantBuilder
+            implements LazyTenantBuilderRegistryStage, LazyTenantBuilderTenantStage, LazyTenantBuildStage {
+        private TaggedMetricRegistry registry;
+
+        private String tenant;
+
+        @Override
+        public LazyTenantMetrics build() {
+            return new LazyTenantMetrics(registry, tenant);
+        }
+
+        @Override
+        public LazyTenantBuilder registry(@Safe TaggedMetricRegistry registry) {
+            Preconditions.checkState(this.registry == null, "registry is already set");
+            this.registry = Preconditions.checkNotNull(registry, "registry is required");
+            return this;
+        }
+
+        @Override
+        public LazyTenantBuilder tenant(@Safe String tenant) {
+            Preconditions.checkState(this.tenant == null, "tenant is already set");
+            this.tenant = Preconditions.checkNotNull(tenant, "tenant is required");
+            return this;
+        }
+    }
+
+    private static final class Constants {
+        private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+        private static final String LIBRARY_VERSION =
+                Objects.requireNonNullElse(LazyTenantMetrics.class.getPackage().getImplementationVersion(), "unknown");
+    }
+}
@@ -0,0 +1,17 @@
+package com.palantir.test;
+
+public enum Outcome {
+    SUCCESS("success"),
+
+    FAILURE("failure");
+
+    private final String value;
+
+    Outcome(String value) {
+        this.value = value;
+    }
+
+    String getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,232 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Gauge;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.lang.ref.WeakReference;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Tests primitive gauge overloads.
+ */
+public final class PrimitiveMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(PrimitiveMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName queueSizeMetricName = MetricName.builder()
+            .safeName("primitive.queue.size")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private PrimitiveMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static PrimitiveMetrics of(TaggedMetricRegistry registry) {
+        return new PrimitiveMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Number of queued tasks.
+     */
+    public void queueSize(Gauge<? extends Number> gauge) {
+        registry.registerWithReplacement(queueSizeMetricName(), gauge);
+    }
+
+    /**
+     * Number of queued tasks.
+     */
+    public void queueSize(LongSupplier gauge) {
+        registry.registerWithReplacement(queueSizeMetricName(), new LongGauge(gauge));
+    }
+
+    /**
+     * Number of queued tasks.
+     *
+     * <p>Holds {@code target} weakly, once it has been garbage collected the gauge reports 0.
+     */
+    public <T> void queueSizeLong(T target, ToLongFunction<? super T> gauge) {
+        registry.registerWithReplacement(queueSizeMetricName(), LongGauge.weak(target, gauge));
+    }
+
+    /**
+     * Number of queued tasks.
+     */
+    public void queueSize(DoubleSupplier gauge) {
+        registry.registerWithReplacement(queueSizeMetricName(), new DoubleGauge(gauge));
+    }
+
+    /**
+     * Number of queued tasks.
+     *
+     * <p>Holds {@code target} weakly, once it has been garbage collected the gauge reports {@code NaN}.
+     */
+    public <T> void queueSizeDouble(T target, ToDoubleFunction<? super T> gauge) {
+        registry.registerWithReplacement(queueSizeMetricName(), DoubleGauge.weak(target, gauge));
+    }
+
+    public static MetricName queueSizeMetricName() {
+        return queueSizeMetricName;
+    }
+
+    /**
+     * Utilization of a pool.
+     */
+    @CheckReturnValue
+    public UtilizationBuilderPoolStage utilization() {
+        return new UtilizationBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "PrimitiveMetrics{registry=" + registry + '}';
+    }
+
+    public interface UtilizationBuildStage {
+        void build(Gauge<? extends Number> gauge);
+
+        void build(LongSupplier gauge);
+
+        /**
+         * Holds {@code target} weakly, once it has been garbage collected the gauge reports 0.
+         */
+        <T> void buildLong(T target, ToLongFunction<? super T> gauge);
+
+        void build(DoubleSupplier gauge);
+
+        /**
+         * Holds {@code target} weakly, once it has been garbage collected the gauge reports {@code NaN}.
+         */
+        <T> void buildDouble(T target, ToDoubleFunction<? super T> gauge);
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface UtilizationBuilderPoolStage {
+        @CheckReturnValue
+        UtilizationBuildStage pool(@Safe String pool);
+    }
+
+    private final class UtilizationBuilder implements UtilizationBuilderPoolStage, UtilizationBuildStage {
+        private String pool;
+
+        @Override
+        public UtilizationBuilder pool(@Safe String pool) {
+            Preconditions.checkState(this.pool == null, "pool is already set");
+            this.pool = Preconditions.checkNotNull(pool, "pool is required");
+            return this;
+        }
+
+        @Override
+        public void build(Gauge<? extends Number> gauge) {
+            registry.registerWithReplacement(buildMetricName(), gauge);
+        }
+
+        @Override
+        public void build(LongSupplier gauge) {
+            registry.registerWithReplacement(buildMetricName(), new LongGauge(gauge));
+        }
+
+        @Override
+        public <T> void buildLong(T target, ToLongFunction<? super T> gauge) {
+            registry.registerWithReplacement(buildMetricName(), LongGauge.weak(target, gauge));
+        }
+
+        @Override
+        public void build(DoubleSupplier gauge) {
+            registry.registerWithReplacement(buildMetricName(), new DoubleGauge(gauge));
+        }
+
+        @Override
+        public <T> void buildDouble(T target, ToDoubleFunction<? super T> gauge) {
+            registry.registerWithReplacement(buildMetricName(), DoubleGauge.weak(target, gauge));
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("primitive.utilization")
+                    .putSafeTags("pool", pool)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+
+    private static final class LongGauge implements Gauge<Long> {
+        private final LongSupplier supplier;
+
+        private Long value = 0L;
+
+        private LongGauge(LongSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Long getValue() {
+            long current = supplier.getAsLong();
+            // Racing reporters may each box the value, any of which is correct to return.
+            Long boxed = value;
+            if (boxed.longValue() != current) {
+                boxed = current;
+                value = boxed;
+            }
+            return boxed;
+        }
+
+        private static <T> LongGauge weak(T target, ToLongFunction<? super T> function) {
+            WeakReference<T> reference = new WeakReference<>(target);
+            return new LongGauge(() -> {
+                T referent = reference.get();
+                return referent == null ? 0L : function.applyAsLong(referent);
+            });
+        }
+    }
+
+    private static final class DoubleGauge implements Gauge<Double> {
+        private final DoubleSupplier supplier;
+
+        private Double value = 0D;
+
+        private DoubleGauge(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public Double getValue() {
+            double current = supplier.getAsDouble();
+            // Racing reporters may each box the value, any of which is correct to return.
+            Double boxed = value;
+            if (Double.doubleToLongBits(boxed) != Double.doubleToLongBits(current)) {
+                boxed = current;
+                value = boxed;
+            }
+            return boxed;
+        }
+
+        private static <T> DoubleGauge weak(T target, ToDoubleFunction<? super T> function) {
+            WeakReference<T> reference = new WeakReference<>(target);
+            return new DoubleGauge(() -> {
+                T referent = reference.get();
+                return referent == null ? Double.NaN : function.applyAsDouble(referent);
+            });
+        }
+    }
+}
@@ -0,0 +1,371 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests recorder interfaces.
+ */
+public final class RecorderMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(RecorderMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName requestsMetricName = MetricName.builder()
+            .safeName("recorder.requests")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName payloadSizeMetricName = MetricName.builder()
+            .safeName("recorder.payload.size")
+            .putSafeTags("sampleRate", "0.5")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName activeMetricName = MetricName.builder()
+            .safeName("recorder.active")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName recorderMetricName = MetricName.builder()
+            .safeName("recorder.recorder")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName noopRecorderMetricName = MetricName.builder()
+            .safeName("recorder.noop.recorder")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private RecorderMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static RecorderMetrics of(TaggedMetricRegistry registry) {
+        return new RecorderMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Rate of requests.
+     */
+    @CheckReturnValue
+    public Meter requests() {
+        return registry.meter(requestsMetricName());
+    }
+
+    public static MetricName requestsMetricName() {
+        return requestsMetricName;
+    }
+
+    /**
+     * Failures by cause.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        return registry.counter(failuresMetricName(cause));
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("recorder.failures")
+                .putSafeTags("cause", cause.getValue())
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Latency by method and endpoint.
+     */
+    @CheckReturnValue
+    public LatencyBuilderMethodStage latency() {
+        return new LatencyBuilder();
+    }
+
+    /**
+     * Request payload size.
+     */
+    @CheckReturnValue
+    public Histogram payloadSize() {
+        return registry.histogram(payloadSizeMetricName());
+    }
+
+    /**
+     * Request payload size.
+     *
+     * <p>Records a random 0.5 fraction of updates. The metric is tagged with {@code sampleRate},
+     * by which observed counts must be divided.
+     */
+    public void updatePayloadSize(long value) {
+        if (ThreadLocalRandom.current().nextDouble() < 0.5) {
+            payloadSize().update(value);
+        }
+    }
+
+    public static MetricName payloadSizeMetricName() {
+        return payloadSizeMetricName;
+    }
+
+    /**
+     * Gauges are not recorded.
+     */
+    public void active(Gauge<? extends Number> gauge) {
+        registry.registerWithReplacement(activeMetricName(), gauge);
+    }
+
+    public static MetricName activeMetricName() {
+        return activeMetricName;
+    }
+
+    /**
+     * Named like the recorder method.
+     */
+    @CheckReturnValue
+    public Counter recorder_() {
+        return registry.counter(recorderMetricName());
+    }
+
+    public static MetricName recorderMetricName() {
+        return recorderMetricName;
+    }
+
+    /**
+     * Named like the no-op recorder method.
+     */
+    @CheckReturnValue
+    public Counter noopRecorder_() {
+        return registry.counter(noopRecorderMetricName());
+    }
+
+    public static MetricName noopRecorderMetricName() {
+        return noopRecorderMetricName;
+    }
+
+    /**
+     * Returns a {@link Recorder} which records into metrics from the registry.
+     */
+    public Recorder recorder() {
+        return new RegistryRecorder();
+    }
+
+    /**
+     * Returns a {@link Recorder} which discards all updates, so that the JIT may remove calls.
+     */
+    public static Recorder noopRecorder() {
+        return NoOpRecorder.INSTANCE;
+    }
+
+    @Override
+    public String toString() {
+        return "RecorderMetrics{registry=" + registry + '}';
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Failures_Cause(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public enum Latency_Method {
+        GET("get"),
+
+        PUT("put");
+
+        private final String value;
+
+        Latency_Method(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface LatencyBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface LatencyBuilderMethodStage {
+        @CheckReturnValue
+        LatencyBuilderEndpointStage method(@Safe Latency_Method method);
+    }
+
+    public interface LatencyBuilderEndpointStage {
+        @CheckReturnValue
+        LatencyBuildStage endpoint(@Safe String endpoint);
+    }
+
+    private final class LatencyBuilder
+            implements LatencyBuilderMethodStage, LatencyBuilderEndpointStage, LatencyBuildStage {
+        private Latency_Method method;
+
+        private String endpoint;
+
+        @Override
+        public LatencyBuilder method(@Safe Latency_Method method) {
+            Preconditions.checkState(this.method == null, "method is already set");
+            this.method = Preconditions.checkNotNull(method, "method is required");
+            return this;
+        }
+
+        @Override
+        public LatencyBuilder endpoint(@Safe String endpoint) {
+            Preconditions.checkState(this.endpoint == null, "endpoint is already set");
+            this.endpoint = Preconditions.checkNotNull(endpoint, "endpoint is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("recorder.latency")
+                    .putSafeTags("method", method.getValue())
+                    .putSafeTags("endpoint", endpoint)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+
+    /**
+     * Records a single update to each metric in the namespace, gauges are not included.
+     */
+    public interface Recorder {
+        /**
+         * Rate of requests.
+         */
+        void markRequests();
+
+        /**
+         * Failures by cause.
+         */
+        void incFailures(@Safe Failures_Cause cause, long value);
+
+        /**
+         * Latency by method and endpoint.
+         */
+        void updateLatency(@Safe Latency_Method method, @Safe String endpoint, long duration, TimeUnit unit);
+
+        /**
+         * Request payload size.
+         *
+         * <p>Records a random 0.5 fraction of updates. The metric is tagged with {@code sampleRate},
+         * by which observed counts must be divided.
+         */
+        void updatePayloadSize(long value);
+
+        /**
+         * Named like the recorder method.
+         */
+        void incRecorder(long value);
+
+        /**
+         * Named like the no-op recorder method.
+         */
+        void incNoopRecorder(long value);
+    }
+
+    private final class RegistryRecorder implements Recorder {
+        @Override
+        public void markRequests() {
+            RecorderMetrics.this.requests().mark();
+        }
+
+        @Override
+        public void incFailures(@Safe Failures_Cause cause, long value) {
+            RecorderMetrics.this.failures(cause).inc(value);
+        }
+
+        @Override
+        public void updateLatency(@Safe Latency_Method method, @Safe String endpoint, long duration, TimeUnit unit) {
+            RecorderMetrics.this.latency().method(method).endpoint(endpoint).build().update(duration, unit);
+        }
+
+        @Override
+        public void updatePayloadSize(long value) {
+            if (ThreadLocalRandom.current().nextDouble() < 0.5) {
+                RecorderMetrics.this.payloadSize().update(value);
+            }
+        }
+
+        @Override
+        public void incRecorder(long value) {
+            RecorderMetrics.this.recorder_().inc(value);
+        }
+
+        @Override
+        public void incNoopRecorder(long value) {
+            RecorderMetrics.this.noopRecorder_().inc(value);
+        }
+    }
+
+    private enum NoOpRecorder implements Recorder {
+        INSTANCE;
+
+        @Override
+        public void markRequests() {}
+
+        @Override
+        public void incFailures(@Safe Failures_Cause cause, long value) {}
+
+        @Override
+        public void updateLatency(@Safe Latency_Method method, @Safe String endpoint, long duration, TimeUnit unit) {}
+
+        @Override
+        public void updatePayloadSize(long value) {}
+
+        @Override
+        public void incRecorder(long value) {}
+
+        @Override
+        public void incNoopRecorder(long value) {}
+    }
+}
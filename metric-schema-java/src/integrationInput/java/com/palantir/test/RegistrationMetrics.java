@@ -0,0 +1,260 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests eager registration of enumerable metrics.
+ */
+public final class RegistrationMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(RegistrationMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName requestsMetricName = MetricName.builder()
+            .safeName("registration.requests")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName activeMetricName = MetricName.builder()
+            .safeName("registration.active")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private static final MetricName registerAllMetricName = MetricName.builder()
+            .safeName("registration.register.all")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private RegistrationMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static RegistrationMetrics of(TaggedMetricRegistry registry) {
+        return new RegistrationMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Rate of requests.
+     */
+    @CheckReturnValue
+    public Meter requests() {
+        return registry.meter(requestsMetricName());
+    }
+
+    public static MetricName requestsMetricName() {
+        return requestsMetricName;
+    }
+
+    /**
+     * Failures by cause.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        return registry.counter(failuresMetricName(cause));
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("registration.failures")
+                .putSafeTags("cause", cause.getValue())
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Latency by method and status.
+     */
+    @CheckReturnValue
+    public LatencyBuilderMethodStage latency() {
+        return new LatencyBuilder();
+    }
+
+    /**
+     * Free-form tags cannot be registered ahead of time.
+     */
+    @CheckReturnValue
+    public Histogram payloadSize(@Safe String endpoint) {
+        return registry.histogram(payloadSizeMetricName(endpoint));
+    }
+
+    public static MetricName payloadSizeMetricName(@Safe String endpoint) {
+        return MetricName.builder()
+                .safeName("registration.payload.size")
+                .putSafeTags("endpoint", endpoint)
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Gauges cannot be registered without a gauge.
+     */
+    public void active(Gauge<? extends Number> gauge) {
+        registry.registerWithReplacement(activeMetricName(), gauge);
+    }
+
+    public static MetricName activeMetricName() {
+        return activeMetricName;
+    }
+
+    /**
+     * Named like the generated registerAll method.
+     */
+    @CheckReturnValue
+    public Counter registerAll_() {
+        return registry.counter(registerAllMetricName());
+    }
+
+    public static MetricName registerAllMetricName() {
+        return registerAllMetricName;
+    }
+
+    /**
+     * Registers all metrics with enumerable tags. Gauges and metrics with free-form tags are skipped.
+     */
+    public void registerAll() {
+        registry.meter(requestsMetricName());
+        for (Failures_Cause cause : Failures_Cause.values()) {
+            registry.counter(failuresMetricName(cause));
+        }
+        for (Latency_Method method : Latency_Method.values()) {
+            for (Latency_Status status : Latency_Status.values()) {
+                registry.timer(latency().method(method).status(status).buildMetricName());
+            }
+        }
+        registry.counter(registerAllMetricName());
+    }
+
+    @Override
+    public String toString() {
+        return "RegistrationMetrics{registry=" + registry + '}';
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Failures_Cause(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public enum Latency_Method {
+        GET("get"),
+
+        PUT("put");
+
+        private final String value;
+
+        Latency_Method(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public enum Latency_Status {
+        OK("ok"),
+
+        ERROR("error");
+
+        private final String value;
+
+        Latency_Status(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface LatencyBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface LatencyBuilderMethodStage {
+        @CheckReturnValue
+        LatencyBuilderStatusStage method(@Safe Latency_Method method);
+    }
+
+    public interface LatencyBuilderStatusStage {
+        @CheckReturnValue
+        LatencyBuildStage status(@Safe Latency_Status status);
+    }
+
+    private final class LatencyBuilder
+            implements LatencyBuilderMethodStage, LatencyBuilderStatusStage, LatencyBuildStage {
+        private Latency_Method method;
+
+        private Latency_Status status;
+
+        @Override
+        public LatencyBuilder method(@Safe Latency_Method method) {
+            Preconditions.checkState(this.method == null, "method is already set");
+            this.method = Preconditions.checkNotNull(method, "method is required");
+            return this;
+        }
+
+        @Override
+        public LatencyBuilder status(@Safe Latency_Status status) {
+            Preconditions.checkState(this.status == null, "status is already set");
+            this.status = Preconditions.checkNotNull(status, "status is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("registration.latency")
+                    .putSafeTags("method", method.getValue())
+                    .putSafeTags("status", status.getValue())
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+}
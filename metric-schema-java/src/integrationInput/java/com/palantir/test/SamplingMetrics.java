@@ -0,0 +1,180 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Histogram;
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests sampled updates.
+ */
+public final class SamplingMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(SamplingMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName latencyMetricName = MetricName.builder()
+            .safeName("sampling.latency")
+            .putSafeTags("sampleRate", "0.1")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private SamplingMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static SamplingMetrics of(TaggedMetricRegistry registry) {
+        return new SamplingMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Request latency.
+     */
+    @CheckReturnValue
+    public Timer latency() {
+        return registry.timer(latencyMetricName());
+    }
+
+    /**
+     * Request latency.
+     *
+     * <p>Records a random 0.1 fraction of updates. The metric is tagged with {@code sampleRate},
+     * by which observed counts must be divided.
+     */
+    public void updateLatency(long duration, TimeUnit unit) {
+        if (ThreadLocalRandom.current().nextDouble() < 0.1) {
+            latency().update(duration, unit);
+        }
+    }
+
+    public static MetricName latencyMetricName() {
+        return latencyMetricName;
+    }
+
+    /**
+     * Request payload size.
+     */
+    @CheckReturnValue
+    public Histogram payloadSize(@Safe String endpoint) {
+        return registry.histogram(payloadSizeMetricName(endpoint));
+    }
+
+    /**
+     * Request payload size.
+     *
+     * <p>Records a random 0.01 fraction of updates. The metric is tagged with {@code sampleRate},
+     * by which observed counts must be divided.
+     */
+    public void updatePayloadSize(@Safe String endpoint, long value) {
+        if (ThreadLocalRandom.current().nextDouble() < 0.01) {
+            payloadSize(endpoint).update(value);
+        }
+    }
+
+    public static MetricName payloadSizeMetricName(@Safe String endpoint) {
+        return MetricName.builder()
+                .safeName("sampling.payload.size")
+                .putSafeTags("endpoint", endpoint)
+                .putSafeTags("sampleRate", "0.01")
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    /**
+     * Handler time.
+     */
+    @CheckReturnValue
+    public HandlerTimeBuilderHandlerStage handlerTime() {
+        return new HandlerTimeBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "SamplingMetrics{registry=" + registry + '}';
+    }
+
+    public interface HandlerTimeBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        /**
+         * Records a random 0.5 fraction of updates. The metric is tagged with {@code sampleRate},
+         * by which observed counts must be divided.
+         */
+        void update(long duration, TimeUnit unit);
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface HandlerTimeBuilderHandlerStage {
+        @CheckReturnValue
+        HandlerTimeBuilderStatusStage handler(@Safe String handler);
+    }
+
+    public interface HandlerTimeBuilderStatusStage {
+        @CheckReturnValue
+        HandlerTimeBuildStage status(@Safe String status);
+    }
+
+    private final class HandlerTimeBuilder
+            implements HandlerTimeBuilderHandlerStage, HandlerTimeBuilderStatusStage, HandlerTimeBuildStage {
+        private String handler;
+
+        private String status;
+
+        @Override
+        public HandlerTimeBuilder handler(@Safe String handler) {
+            Preconditions.checkState(this.handler == null, "handler is already set");
+            this.handler = Preconditions.checkNotNull(handler, "handler is required");
+            return this;
+        }
+
+        @Override
+        public HandlerTimeBuilder status(@Safe String status) {
+            Preconditions.checkState(this.status == null, "status is already set");
+            this.status = Preconditions.checkNotNull(status, "status is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public void update(long duration, TimeUnit unit) {
+            if (ThreadLocalRandom.current().nextDouble() < 0.5) {
+                build().update(duration, unit);
+            }
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("sampling.handler.time")
+                    .putSafeTags("handler", handler)
+                    .putSafeTags("status", status)
+                    .putSafeTags("sampleRate", "0.5")
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+}
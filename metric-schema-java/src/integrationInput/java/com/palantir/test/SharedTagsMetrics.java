@@ -0,0 +1,135 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+
+/**
+ * Tests tag value sets.
+ */
+public final class SharedTagsMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(SharedTagsMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private final TaggedMetricRegistry registry;
+
+    private SharedTagsMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static SharedTagsMetrics of(TaggedMetricRegistry registry) {
+        return new SharedTagsMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Requests by method and result.
+     */
+    @CheckReturnValue
+    public RequestsBuilderMethodStage requests() {
+        return new RequestsBuilder();
+    }
+
+    /**
+     * Failures by method.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Method method) {
+        return registry.counter(failuresMetricName(method));
+    }
+
+    public static MetricName failuresMetricName(@Safe Method method) {
+        return MetricName.builder()
+                .safeName("shared-tags.failures")
+                .putSafeTags("method", method.getValue())
+                .putSafeTags("libraryName", LIBRARY_NAME)
+                .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                .putSafeTags("javaVersion", JAVA_VERSION)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "SharedTagsMetrics{registry=" + registry + '}';
+    }
+
+    public enum Method {
+        GET("get"),
+
+        PUT("put");
+
+        private final String value;
+
+        Method(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface RequestsBuildStage {
+        @CheckReturnValue
+        Meter build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface RequestsBuilderMethodStage {
+        @CheckReturnValue
+        RequestsBuilderResultStage method(@Safe Method method);
+    }
+
+    public interface RequestsBuilderResultStage {
+        @CheckReturnValue
+        RequestsBuildStage result(@Safe Outcome result);
+    }
+
+    private final class RequestsBuilder
+            implements RequestsBuilderMethodStage, RequestsBuilderResultStage, RequestsBuildStage {
+        private Method method;
+
+        private Outcome result;
+
+        @Override
+        public RequestsBuilder method(@Safe Method method) {
+            Preconditions.checkState(this.method == null, "method is already set");
+            this.method = Preconditions.checkNotNull(method, "method is required");
+            return this;
+        }
+
+        @Override
+        public RequestsBuilder result(@Safe Outcome result) {
+            Preconditions.checkState(this.result == null, "result is already set");
+            this.result = Preconditions.checkNotNull(result, "result is required");
+            return this;
+        }
+
+        @Override
+        public Meter build() {
+            return registry.meter(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("shared-tags.requests")
+                    .putSafeTags("method", method.getValue())
+                    .putSafeTags("result", result.getValue())
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Tests prebuilt safe tags.
+ */
+public final class TagEntriesMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(TagEntriesMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private final TaggedMetricRegistry registry;
+
+    private TagEntriesMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static TagEntriesMetrics of(TaggedMetricRegistry registry) {
+        return new TagEntriesMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Requests by method and endpoint.
+     */
+    @CheckReturnValue
+    public RequestsBuilderMethodStage requests() {
+        return new RequestsBuilder();
+    }
+
+    /**
+     * Failures by cause.
+     */
+    @CheckReturnValue
+    public Counter failures(@Safe Failures_Cause cause) {
+        return registry.counter(failuresMetricName(cause));
+    }
+
+    public static MetricName failuresMetricName(@Safe Failures_Cause cause) {
+        return MetricName.builder()
+                .safeName("tag-entries.failures")
+                .putAllSafeTags(cause.getSafeTags())
+                .build();
+    }
+
+    /**
+     * Retries by cause and attempt.
+     */
+    @CheckReturnValue
+    public RetriesBuilderCauseStage retries() {
+        return new RetriesBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "TagEntriesMetrics{registry=" + registry + '}';
+    }
+
+    public enum Requests_Method {
+        GET("get"),
+
+        PUT("put");
+
+        private final String value;
+
+        private final Map<String, String> safeTags;
+
+        Requests_Method(String value) {
+            this.value = value;
+            this.safeTags = Map.ofEntries(
+                    Map.entry("method", value),
+                    Map.entry("libraryName", LIBRARY_NAME),
+                    Map.entry("libraryVersion", LIBRARY_VERSION),
+                    Map.entry("javaVersion", JAVA_VERSION));
+        }
+
+        private String getValue() {
+            return value;
+        }
+
+        private Map<String, String> getSafeTags() {
+            return safeTags;
+        }
+    }
+
+    public interface RequestsBuildStage {
+        @CheckReturnValue
+        Meter build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface RequestsBuilderMethodStage {
+        @CheckReturnValue
+        RequestsBuilderEndpointStage method(@Safe Requests_Method method);
+    }
+
+    public interface RequestsBuilderEndpointStage {
+        @CheckReturnValue
+        RequestsBuildStage endpoint(@Safe String endpoint);
+    }
+
+    private final class RequestsBuilder
+            implements RequestsBuilderMethodStage, RequestsBuilderEndpointStage, RequestsBuildStage {
+        private Requests_Method method;
+
+        private String endpoint;
+
+        @Override
+        public RequestsBuilder method(@Safe Requests_Method method) {
+            Preconditions.checkState(this.method == null, "method is already set");
+            this.method = Preconditions.checkNotNull(method, "method is required");
+            return this;
+        }
+
+        @Override
+        public RequestsBuilder endpoint(@Safe String endpoint) {
+            Preconditions.checkState(this.endpoint == null, "endpoint is already set");
+            this.endpoint = Preconditions.checkNotNull(endpoint, "endpoint is required");
+            return this;
+        }
+
+        @Override
+        public Meter build() {
+            return registry.meter(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("tag-entries.requests")
+                    .putAllSafeTags(method.getSafeTags())
+                    .putSafeTags("endpoint", endpoint)
+                    .build();
+        }
+    }
+
+    public enum Failures_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        private final Map<String, String> safeTags;
+
+        Failures_Cause(String value) {
+            this.value = value;
+            this.safeTags = Map.ofEntries(
+                    Map.entry("cause", value),
+                    Map.entry("libraryName", LIBRARY_NAME),
+                    Map.entry("libraryVersion", LIBRARY_VERSION),
+                    Map.entry("javaVersion", JAVA_VERSION));
+        }
+
+        private String getValue() {
+            return value;
+        }
+
+        private Map<String, String> getSafeTags() {
+            return safeTags;
+        }
+    }
+
+    public enum Retries_Cause {
+        TIMEOUT("timeout"),
+
+        ERROR("error");
+
+        private final String value;
+
+        private final Map<String, String> safeTags;
+
+        Retries_Cause(String value) {
+            this.value = value;
+            this.safeTags = Map.ofEntries(
+                    Map.entry("cause", value),
+                    Map.entry("region", "local"),
+                    Map.entry("libraryName", LIBRARY_NAME),
+                    Map.entry("libraryVersion", LIBRARY_VERSION),
+                    Map.entry("javaVersion", JAVA_VERSION));
+        }
+
+        private String getValue() {
+            return value;
+        }
+
+        private Map<String, String> getSafeTags() {
+            return safeTags;
+        }
+    }
+
+    public enum Retries_Attempt {
+        FIRST("first"),
+
+        LAST("last");
+
+        private final String value;
+
+        Retries_Attempt(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface RetriesBuildStage {
+        @CheckReturnValue
+        Meter build();
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface RetriesBuilderCauseStage {
+        @CheckReturnValue
+        RetriesBuilderAttemptStage cause(@Safe Retries_Cause cause);
+    }
+
+    public interface RetriesBuilderAttemptStage {
+        @CheckReturnValue
+        RetriesBuildStage attempt(@Safe Retries_Attempt attempt);
+    }
+
+    private final class RetriesBuilder
+            implements RetriesBuilderCauseStage, RetriesBuilderAttemptStage, RetriesBuildStage {
+        private Retries_Cause cause;
+
+        private Retries_Attempt attempt;
+
+        @Override
+        public RetriesBuilder cause(@Safe Retries_Cause cause) {
+            Preconditions.checkState(this.cause == null, "cause is already set");
+            this.cause = Preconditions.checkNotNull(cause, "cause is required");
+            return this;
+        }
+
+        @Override
+        public RetriesBuilder attempt(@Safe Retries_Attempt attempt) {
+            Preconditions.checkState(this.attempt == null, "attempt is already set");
+            this.attempt = Preconditions.checkNotNull(attempt, "attempt is required");
+            return this;
+        }
+
+        @Override
+        public Meter build() {
+            return registry.meter(buildMetricName());
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("tag-entries.retries")
+                    .putAllSafeTags(cause.getSafeTags())
+                    .putSafeTags("attempt", attempt.getValue())
+                    .build();
+        }
+    }
+}
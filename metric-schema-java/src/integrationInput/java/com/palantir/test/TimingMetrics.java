@@ -0,0 +1,319 @@
+package com.palantir.test;
+
+import com.codahale.metrics.Timer;
+import com.google.errorprone.annotations.CheckReturnValue;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Objects;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Tests timing helpers.
+ */
+public final class TimingMetrics {
+    private static final String JAVA_VERSION = System.getProperty("java.version", "unknown");
+
+    private static final String LIBRARY_NAME = "witchcraft";
+
+    private static final String LIBRARY_VERSION =
+            Objects.requireNonNullElse(TimingMetrics.class.getPackage().getImplementationVersion(), "unknown");
+
+    private static final MetricName latencyMetricName = MetricName.builder()
+            .safeName("timing.latency")
+            .putSafeTags("libraryName", LIBRARY_NAME)
+            .putSafeTags("libraryVersion", LIBRARY_VERSION)
+            .putSafeTags("javaVersion", JAVA_VERSION)
+            .build();
+
+    private final TaggedMetricRegistry registry;
+
+    private TimingMetrics(TaggedMetricRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static TimingMetrics of(TaggedMetricRegistry registry) {
+        return new TimingMetrics(Preconditions.checkNotNull(registry, "TaggedMetricRegistry"));
+    }
+
+    /**
+     * Request latency.
+     */
+    @CheckReturnValue
+    public Timer latency() {
+        return registry.timer(latencyMetricName());
+    }
+
+    /**
+     * Request latency.
+     *
+     * <p>Records the time taken by {@code supplier}, measured with {@link System#nanoTime()}.
+     */
+    public <T> T timeLatency(Supplier<T> supplier) {
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            latency().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Request latency.
+     *
+     * <p>Records a duration in nanoseconds, as measured with {@link System#nanoTime()}.
+     */
+    public void recordLatencyNanos(long nanos) {
+        latency().update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Request latency.
+     *
+     * <p>Records the time until the stage from {@code supplier} completes, measured with {@link System#nanoTime()}.
+     */
+    public <T> CompletionStage<T> timeLatencyAsync(Supplier<? extends CompletionStage<T>> supplier) {
+        long start = System.nanoTime();
+        return supplier.get().whenComplete((_value, _throwable) -> {
+            latency().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    public static MetricName latencyMetricName() {
+        return latencyMetricName;
+    }
+
+    /**
+     * Handler time.
+     */
+    @CheckReturnValue
+    public HandlerTimeBuilderHandlerStage handlerTime() {
+        return new HandlerTimeBuilder();
+    }
+
+    /**
+     * Handler time.
+     *
+     * <p>Records the time until the stage from {@code supplier} completes, measured with {@link System#nanoTime()}.
+     *
+     * <p>Sets {@code result} to success or failure by how the stage completes.
+     */
+    public <T> CompletionStage<T> timeHandlerTimeAsync(
+            @Safe String handler, Supplier<? extends CompletionStage<T>> supplier) {
+        long start = System.nanoTime();
+        return supplier.get().whenComplete((_value, throwable) -> {
+            handlerTime()
+                    .handler(handler)
+                    .result(throwable == null ? HandlerTime_Result.SUCCESS : HandlerTime_Result.FAILURE)
+                    .build()
+                    .update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        });
+    }
+
+    /**
+     * Time spent waiting in a queue.
+     */
+    @CheckReturnValue
+    public QueueWaitBuilderQueueStage queueWait() {
+        return new QueueWaitBuilder();
+    }
+
+    @Override
+    public String toString() {
+        return "TimingMetrics{registry=" + registry + '}';
+    }
+
+    public enum HandlerTime_Result {
+        SUCCESS("success"),
+
+        FAILURE("failure");
+
+        private final String value;
+
+        HandlerTime_Result(String value) {
+            this.value = value;
+        }
+
+        private String getValue() {
+            return value;
+        }
+    }
+
+    public interface HandlerTimeBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        /**
+         * Records the time taken by {@code supplier}, measured with {@link System#nanoTime()}.
+         */
+        <T> T time(Supplier<T> supplier);
+
+        /**
+         * Records a duration in nanoseconds, as measured with {@link System#nanoTime()}.
+         */
+        void recordNanos(long nanos);
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface HandlerTimeBuilderHandlerStage {
+        @CheckReturnValue
+        HandlerTimeBuilderResultStage handler(@Safe String handler);
+    }
+
+    public interface HandlerTimeBuilderResultStage {
+        @CheckReturnValue
+        HandlerTimeBuildStage result(@Safe HandlerTime_Result result);
+    }
+
+    private final class HandlerTimeBuilder
+            implements HandlerTimeBuilderHandlerStage, HandlerTimeBuilderResultStage, HandlerTimeBuildStage {
+        private String handler;
+
+        private HandlerTime_Result result;
+
+        @Override
+        public HandlerTimeBuilder handler(@Safe String handler) {
+            Preconditions.checkState(this.handler == null, "handler is already set");
+            this.handler = Preconditions.checkNotNull(handler, "handler is required");
+            return this;
+        }
+
+        @Override
+        public HandlerTimeBuilder result(@Safe HandlerTime_Result result) {
+            Preconditions.checkState(this.result == null, "result is already set");
+            this.result = Preconditions.checkNotNull(result, "result is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public <T> T time(Supplier<T> supplier) {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                build().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void recordNanos(long nanos) {
+            build().update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("timing.handler.time")
+                    .putSafeTags("handler", handler)
+                    .putSafeTags("result", result.getValue())
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+
+    public interface QueueWaitBuildStage {
+        @CheckReturnValue
+        Timer build();
+
+        /**
+         * Records the time taken by {@code supplier}, measured with {@link System#nanoTime()}.
+         */
+        <T> T time(Supplier<T> supplier);
+
+        /**
+         * Records a duration in nanoseconds, as measured with {@link System#nanoTime()}.
+         */
+        void recordNanos(long nanos);
+
+        /**
+         * Records the time until the stage from {@code supplier} completes, measured with {@link System#nanoTime()}.
+         */
+        <T> CompletionStage<T> timeAsync(Supplier<? extends CompletionStage<T>> supplier);
+
+        @CheckReturnValue
+        MetricName buildMetricName();
+    }
+
+    public interface QueueWaitBuilderQueueStage {
+        @CheckReturnValue
+        QueueWaitBuilderPriorityStage queue(@Safe String queue);
+    }
+
+    public interface QueueWaitBuilderPriorityStage {
+        @CheckReturnValue
+        QueueWaitBuildStage priority(@Safe String priority);
+    }
+
+    private final class QueueWaitBuilder
+            implements QueueWaitBuilderQueueStage, QueueWaitBuilderPriorityStage, QueueWaitBuildStage {
+        private String queue;
+
+        private String priority;
+
+        @Override
+        public QueueWaitBuilder queue(@Safe String queue) {
+            Preconditions.checkState(this.queue == null, "queue is already set");
+            this.queue = Preconditions.checkNotNull(queue, "queue is required");
+            return this;
+        }
+
+        @Override
+        public QueueWaitBuilder priority(@Safe String priority) {
+            Preconditions.checkState(this.priority == null, "priority is already set");
+            this.priority = Preconditions.checkNotNull(priority, "priority is required");
+            return this;
+        }
+
+        @Override
+        public Timer build() {
+            return registry.timer(buildMetricName());
+        }
+
+        @Override
+        public <T> T time(Supplier<T> supplier) {
+            long start = System.nanoTime();
+            try {
+                return supplier.get();
+            } finally {
+                build().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        @Override
+        public void recordNanos(long nanos) {
+            build().update(nanos, TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public <T> CompletionStage<T> timeAsync(Supplier<? extends CompletionStage<T>> supplier) {
+            long start = System.nanoTime();
+            return supplier.get().whenComplete((_value, _throwable) -> {
+                build().update(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            });
+        }
+
+        @Override
+        public MetricName buildMetricName() {
+            return MetricName.builder()
+                    .safeName("timing.queue.wait")
+                    .putSafeTags("queue", queue)
+                    .putSafeTags("priority", priority)
+                    .putSafeTags("libraryName", LIBRARY_NAME)
+                    .putSafeTags("libraryVersion", LIBRARY_VERSION)
+                    .putSafeTags("javaVersion", JAVA_VERSION)
+                    .build();
+        }
+    }
+}
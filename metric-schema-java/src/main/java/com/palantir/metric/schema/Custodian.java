@@ -19,6 +19,7 @@ package com.palantir.metric.schema;
 import com.google.common.base.CaseFormat;
 import com.google.common.base.Splitter;
 import com.palantir.logsafe.Preconditions;
+import java.util.Set;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 
@@ -35,6 +36,12 @@ final class Custodian {
         return escapeIfNecessary(sanitized);
     }
 
+    /** Sanitizes a name like {@link #sanitizeName(String)}, additionally escaping any of the {@code reserved} names. */
+    static String sanitizeName(String input, Set<String> reserved) {
+        String sanitized = sanitizeName(input);
+        return reserved.contains(sanitized) ? escapeSuffix(sanitized) : sanitized;
+    }
+
     static String anyToUpperCamel(String input) {
         Preconditions.checkNotNull(input, "Input string is required");
         return String.join(
@@ -0,0 +1,94 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.immutables.value.Value;
+
+/**
+ * A generated utility class along with its size, allowing builds to keep generated code within a budget. Enums
+ * generated for schema level tag value sets are described too, and distinguished by {@link #tagValueSet()}.
+ */
+@SuppressWarnings("ImmutablesStyle")
+@Value.Immutable
+@Value.Style(
+        visibility = Value.Style.ImplementationVisibility.PACKAGE,
+        overshadowImplementation = true,
+        jdkOnly = true,
+        get = {"get*", "is*"})
+public abstract class GeneratedUtility {
+
+    /** Path of the emitted source file. */
+    public abstract Path path();
+
+    /** Fully qualified name of the utility class. */
+    public abstract String className();
+
+    /** Whether this is the enum of a schema level tag value set, rather than the utility class of a namespace. */
+    public abstract boolean tagValueSet();
+
+    /** Number of classes, interfaces and enums, including the utility class itself. */
+    public abstract int classCount();
+
+    /** Number of methods and constructors declared across all classes. */
+    public abstract int methodCount();
+
+    /** Size of the formatted source file in bytes. */
+    public abstract long sourceBytes();
+
+    static GeneratedUtility of(JavaFile javaFile, Path path) {
+        try {
+            return builder()
+                    .path(path)
+                    .className(javaFile.packageName + '.' + javaFile.typeSpec.name)
+                    // Namespace utilities are always classes, only tag value sets are generated as top level enums.
+                    .tagValueSet(javaFile.typeSpec.kind == TypeSpec.Kind.ENUM)
+                    .classCount(classCount(javaFile.typeSpec))
+                    .methodCount(methodCount(javaFile.typeSpec))
+                    .sourceBytes(Files.size(path))
+                    .build();
+        } catch (IOException e) {
+            throw new SafeRuntimeException("Failed to read generated source", e, SafeArg.of("path", path));
+        }
+    }
+
+    private static int classCount(TypeSpec typeSpec) {
+        return 1
+                + typeSpec.typeSpecs.stream()
+                        .mapToInt(GeneratedUtility::classCount)
+                        .sum();
+    }
+
+    private static int methodCount(TypeSpec typeSpec) {
+        return typeSpec.methodSpecs.size()
+                + typeSpec.typeSpecs.stream()
+                        .mapToInt(GeneratedUtility::methodCount)
+                        .sum();
+    }
+
+    static final class Builder extends ImmutableGeneratedUtility.Builder {}
+
+    static Builder builder() {
+        return new Builder();
+    }
+}
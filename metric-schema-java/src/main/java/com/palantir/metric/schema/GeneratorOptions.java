@@ -0,0 +1,91 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema;
+
+import com.palantir.metric.schema.model.ImplementationVisibility;
+import org.immutables.value.Value;
+
+/** Per-schema generator features, derived from {@link MetricSchema#getOptions()}. */
+@SuppressWarnings("ImmutablesStyle")
+@Value.Immutable
+@Value.Style(
+        visibility = Value.Style.ImplementationVisibility.PACKAGE,
+        overshadowImplementation = true,
+        jdkOnly = true,
+        get = {"get*", "is*"})
+abstract class GeneratorOptions {
+
+    /** Visibility of the generated utility class. */
+    @Value.Default
+    ImplementationVisibility visibility() {
+        return ImplementationVisibility.PUBLIC;
+    }
+
+    /** Emit primitive supplier and weakly held function overloads for gauge metrics, see {@link PrimitiveGauge}. */
+    @Value.Default
+    boolean primitiveGauges() {
+        return false;
+    }
+
+    /** Emit a {@code registerAll} method which eagerly registers every enumerable metric. */
+    @Value.Default
+    boolean registerAll() {
+        return false;
+    }
+
+    /** Defer static initialization to a holder class which is only initialized once a metric is used. */
+    @Value.Default
+    boolean lazyInitialization() {
+        return false;
+    }
+
+    /** Emit a {@code Recorder} interface with registry backed and no-op implementations. */
+    @Value.Default
+    boolean recorder() {
+        return false;
+    }
+
+    /** Emit {@code System.nanoTime} based timing helpers for timer metrics. */
+    @Value.Default
+    boolean timingHelpers() {
+        return false;
+    }
+
+    /** Emit {@code bind} methods returning immutable handles to the metric resolved for a tag combination. */
+    @Value.Default
+    boolean bind() {
+        return false;
+    }
+
+    /** Emit a single factory method taking every tag rather than staged builder interfaces, reducing class count. */
+    @Value.Default
+    boolean collapseStages() {
+        return false;
+    }
+
+    /** Store prebuilt safe tags on each constant of the first tag enum of a metric, added at once to metric names. */
+    @Value.Default
+    boolean tagEntries() {
+        return false;
+    }
+
+    static final class Builder extends ImmutableGeneratorOptions.Builder {}
+
+    static Builder builder() {
+        return new Builder();
+    }
+}
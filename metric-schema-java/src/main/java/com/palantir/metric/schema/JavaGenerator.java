@@ -16,13 +16,23 @@
 
 package com.palantir.metric.schema;
 
+import com.google.common.collect.HashMultiset;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multiset;
+import com.google.common.collect.Sets;
 import com.google.errorprone.annotations.CanIgnoreReturnValue;
 import com.palantir.goethe.Goethe;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.metric.schema.model.ImplementationVisibility;
+import com.squareup.javapoet.JavaFile;
+import com.squareup.javapoet.TypeSpec;
 import java.nio.file.Path;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public final class JavaGenerator {
     // TODO(forozco): consider splitting this out into an API package
@@ -36,24 +46,129 @@ public final class JavaGenerator {
      */
     private static final String JAVA_VISIBILITY = "javaVisibility";
 
+    /**
+     * Emits {@code LongSupplier}, {@code DoubleSupplier}, {@code ToLongFunction} and {@code ToDoubleFunction} overloads
+     * for gauges. Defaults to false
+     */
+    private static final String JAVA_PRIMITIVE_GAUGES = "javaPrimitiveGauges";
+
+    /**
+     * Emits a registerAll method which registers all metrics with enumerable tags. Defaults to false
+     */
+    private static final String JAVA_REGISTER_ALL = "javaRegisterAll";
+
+    /**
+     * Defers initialization of generated utility classes until metrics are used. Defaults to false
+     */
+    private static final String JAVA_LAZY_INITIALIZATION = "javaLazyInitialization";
+
+    /**
+     * Emits a Recorder interface with registry backed and no-op implementations. Defaults to false
+     */
+    private static final String JAVA_RECORDER = "javaRecorder";
+
+    /**
+     * Emits nanoTime based timing helpers for timers. Defaults to false
+     */
+    private static final String JAVA_TIMING_HELPERS = "javaTimingHelpers";
+
+    /**
+     * Emits bind methods which return reusable handles to metrics with tags. Defaults to false
+     */
+    private static final String JAVA_BIND = "javaBind";
+
+    /**
+     * Emits a single factory method per metric instead of staged builders, reducing class count. Defaults to false
+     */
+    private static final String JAVA_COLLAPSE_STAGES = "javaCollapseStages";
+
+    /**
+     * Emits prebuilt safe tags on each constant of the first tag enum of a metric. Defaults to false
+     */
+    private static final String JAVA_TAG_ENTRIES = "javaTagEntries";
+
     @CanIgnoreReturnValue
     public static List<Path> generate(JavaGeneratorArgs args) {
+        return generateUtilities(args).stream()
+                .map(GeneratedUtility::path)
+                .collect(ImmutableList.toImmutableList());
+    }
+
+    /** Generates utility classes in the same way as {@link #generate}, describing the size of each. */
+    public static List<GeneratedUtility> generateUtilities(JavaGeneratorArgs args) {
         return SchemaParser.get().parseFile(args.input()).stream()
-                .flatMap(schema -> schema.getNamespaces().entrySet().stream().map(entry -> {
-                    return UtilityGenerator.generateUtilityClass(
-                            entry.getKey(),
-                            entry.getValue(),
-                            args.libraryName(),
-                            args.libraryVersion(),
-                            getPackage(args, schema),
-                            getVisibility(schema));
-                }))
-                .map(javaFile -> Goethe.formatAndEmit(javaFile, args.output()))
+                .flatMap(schema -> generateJavaFiles(
+                        schema, args.libraryName(), args.libraryVersion(), args.defaultPackageName())
+                        .stream())
+                .map(javaFile -> GeneratedUtility.of(javaFile, Goethe.formatAndEmit(javaFile, args.output())))
                 .collect(ImmutableList.toImmutableList());
     }
 
-    private static String getPackage(JavaGeneratorArgs args, MetricSchema schema) {
-        return Optional.ofNullable(schema.getOptions().get(JAVA_PACKAGE)).orElseGet(args::defaultPackageName);
+    /**
+     * Generates one utility class per namespace of an already compiled schema, along with an enum for each schema level
+     * tag value set, leaving the caller to decide where the sources are written.
+     */
+    public static List<JavaFile> generateJavaFiles(
+            MetricSchema schema,
+            Optional<String> libraryName,
+            Optional<String> libraryVersion,
+            String defaultPackageName) {
+        String packageName = Optional.ofNullable(schema.getOptions().get(JAVA_PACKAGE)).orElse(defaultPackageName);
+        GeneratorOptions options = getOptions(schema);
+        ImmutableList.Builder<JavaFile> javaFiles = ImmutableList.builder();
+        schema.getTagValueSets()
+                .forEach((tagValueSet, values) -> javaFiles.add(
+                        UtilityGenerator.generateTagValueSet(tagValueSet, values, packageName, options)));
+        Set<String> generatedTypes = new HashSet<>();
+        schema.getNamespaces().forEach((namespace, metrics) -> {
+            JavaFile utility = UtilityGenerator.generateUtilityClass(
+                    namespace, metrics, libraryName, libraryVersion, packageName, options);
+            checkTagValueSetNames(namespace, metrics.getTagValueSets().keySet(), utility.typeSpec);
+            generatedTypes.add(utility.typeSpec.name);
+            utility.typeSpec.typeSpecs.forEach(type -> generatedTypes.add(type.name));
+            javaFiles.add(utility);
+        });
+        // Schema level sets are top level types, which a generated type of the same name would shadow or replace.
+        Set<String> collisions = Sets.intersection(schema.getTagValueSets().keySet(), generatedTypes);
+        if (!collisions.isEmpty()) {
+            throw new SafeIllegalArgumentException(
+                    "Schema tagValueSets names collide with generated type names",
+                    SafeArg.of("tagValueSets", ImmutableSet.copyOf(collisions)));
+        }
+        return javaFiles.build();
+    }
+
+    /**
+     * Namespace level tag value sets are nested in the utility class, so a set named like the utility class or like
+     * another nested type, such as {@code Recorder} or a metric handle, would not compile.
+     */
+    private static void checkTagValueSetNames(String namespace, Set<String> tagValueSets, TypeSpec utility) {
+        Multiset<String> names = HashMultiset.create();
+        names.add(utility.name);
+        utility.typeSpecs.forEach(type -> names.add(type.name));
+        Set<String> collisions = tagValueSets.stream()
+                .filter(tagValueSet -> names.count(tagValueSet) > 1)
+                .collect(ImmutableSet.toImmutableSet());
+        if (!collisions.isEmpty()) {
+            throw new SafeIllegalArgumentException(
+                    "Namespace tagValueSets names collide with generated type names",
+                    SafeArg.of("namespace", namespace),
+                    SafeArg.of("tagValueSets", collisions));
+        }
+    }
+
+    private static GeneratorOptions getOptions(MetricSchema schema) {
+        return GeneratorOptions.builder()
+                .visibility(getVisibility(schema))
+                .primitiveGauges(getBooleanOption(schema, JAVA_PRIMITIVE_GAUGES))
+                .registerAll(getBooleanOption(schema, JAVA_REGISTER_ALL))
+                .lazyInitialization(getBooleanOption(schema, JAVA_LAZY_INITIALIZATION))
+                .recorder(getBooleanOption(schema, JAVA_RECORDER))
+                .timingHelpers(getBooleanOption(schema, JAVA_TIMING_HELPERS))
+                .bind(getBooleanOption(schema, JAVA_BIND))
+                .collapseStages(getBooleanOption(schema, JAVA_COLLAPSE_STAGES))
+                .tagEntries(getBooleanOption(schema, JAVA_TAG_ENTRIES))
+                .build();
     }
 
     private static ImplementationVisibility getVisibility(MetricSchema schema) {
@@ -62,5 +177,16 @@ public final class JavaGenerator {
                 .orElse(ImplementationVisibility.PUBLIC);
     }
 
+    private static boolean getBooleanOption(MetricSchema schema, String option) {
+        String value = schema.getOptions().get(option);
+        if (value == null || value.equals("false")) {
+            return false;
+        } else if (value.equals("true")) {
+            return true;
+        }
+        throw new SafeIllegalArgumentException(
+                "Expected a boolean option value", SafeArg.of("option", option), SafeArg.of("value", value));
+    }
+
     private JavaGenerator() {}
 }
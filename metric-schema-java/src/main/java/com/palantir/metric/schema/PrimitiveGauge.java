@@ -0,0 +1,190 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema;
+
+import com.codahale.metrics.Gauge;
+import com.squareup.javapoet.ClassName;
+import com.squareup.javapoet.CodeBlock;
+import com.squareup.javapoet.FieldSpec;
+import com.squareup.javapoet.MethodSpec;
+import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
+import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
+import com.squareup.javapoet.WildcardTypeName;
+import java.lang.ref.WeakReference;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToLongFunction;
+import javax.lang.model.element.Modifier;
+
+/**
+ * Primitive gauge overloads. Each registers a generated adapter which reads a primitive value and reuses the box it
+ * returned last while the value is unchanged, so reporting a steady gauge does not allocate. Methods reading from a
+ * weakly held target are named by primitive type rather than overloaded, as in {@code Comparator.comparingLong}, since
+ * an implicitly typed lambda is compatible with both function types.
+ */
+enum PrimitiveGauge {
+    LONG(
+            TypeName.LONG,
+            LongSupplier.class,
+            "getAsLong",
+            ToLongFunction.class,
+            "applyAsLong",
+            ReservedNames.LONG_GAUGE_CLASS,
+            "Long",
+            CodeBlock.of("0L"),
+            CodeBlock.of("0L"),
+            "0",
+            CodeBlock.of("boxed.longValue() != current")),
+    DOUBLE(
+            TypeName.DOUBLE,
+            DoubleSupplier.class,
+            "getAsDouble",
+            ToDoubleFunction.class,
+            "applyAsDouble",
+            ReservedNames.DOUBLE_GAUGE_CLASS,
+            "Double",
+            CodeBlock.of("0D"),
+            CodeBlock.of("$T.NaN", Double.class),
+            "{@code NaN}",
+            CodeBlock.of("$T.doubleToLongBits(boxed) != $T.doubleToLongBits(current)", Double.class, Double.class));
+
+    /** Type variable of the weakly held object a gauge function reads from. */
+    private static final TypeVariableName TARGET_TYPE = TypeVariableName.get("T");
+
+    private final TypeName primitive;
+    private final ClassName supplierType;
+    private final String supplierMethod;
+    private final ClassName functionType;
+    private final String functionMethod;
+    private final String adapterName;
+    private final String weakSuffix;
+    private final CodeBlock initialValue;
+    private final CodeBlock collectedValue;
+    private final String collectedJavadoc;
+    private final CodeBlock changed;
+
+    PrimitiveGauge(
+            TypeName primitive,
+            Class<?> supplierType,
+            String supplierMethod,
+            Class<?> functionType,
+            String functionMethod,
+            String adapterName,
+            String weakSuffix,
+            CodeBlock initialValue,
+            CodeBlock collectedValue,
+            String collectedJavadoc,
+            CodeBlock changed) {
+        this.primitive = primitive;
+        this.supplierType = ClassName.get(supplierType);
+        this.supplierMethod = supplierMethod;
+        this.functionType = ClassName.get(functionType);
+        this.functionMethod = functionMethod;
+        this.adapterName = adapterName;
+        this.weakSuffix = weakSuffix;
+        this.initialValue = initialValue;
+        this.collectedValue = collectedValue;
+        this.collectedJavadoc = collectedJavadoc;
+        this.changed = changed;
+    }
+
+    /** Parameter type of the overload reading from a supplier, which the gauge holds strongly. */
+    TypeName supplierType() {
+        return supplierType;
+    }
+
+    /** Type variable of the method reading from a weakly held target. */
+    TypeVariableName targetType() {
+        return TARGET_TYPE;
+    }
+
+    /** Parameter type of the method reading from a weakly held target. */
+    TypeName functionType() {
+        return ParameterizedTypeName.get(functionType, WildcardTypeName.supertypeOf(TARGET_TYPE));
+    }
+
+    /** Name of the method reading from a weakly held target, given the name of the method it accompanies. */
+    String weakMethod(String method) {
+        return method + weakSuffix;
+    }
+
+    /** Javadoc appended to the method reading from a weakly held target. */
+    String weakJavadoc() {
+        return "Holds {@code " + ReservedNames.TARGET_NAME + "} weakly, once it has been garbage collected the gauge"
+                + " reports " + collectedJavadoc + ".\n";
+    }
+
+    /** Gauge reading from {@code supplier}. */
+    CodeBlock fromSupplier(String supplier) {
+        return CodeBlock.of("new $L($L)", adapterName, supplier);
+    }
+
+    /** Gauge applying {@code function} to the weakly held {@code target}. */
+    CodeBlock fromWeakTarget(String target, String function) {
+        return CodeBlock.of("$L.weak($L, $L)", adapterName, target, function);
+    }
+
+    /** Private adapter class which the registration code blocks of this gauge instantiate. */
+    TypeSpec adapter() {
+        TypeName boxed = primitive.box();
+        return TypeSpec.classBuilder(adapterName)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
+                .addSuperinterface(ParameterizedTypeName.get(ClassName.get(Gauge.class), boxed))
+                .addField(supplierType, "supplier", Modifier.PRIVATE, Modifier.FINAL)
+                .addField(FieldSpec.builder(boxed, "value", Modifier.PRIVATE)
+                        .initializer(initialValue)
+                        .build())
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(supplierType, "supplier")
+                        .addStatement("this.supplier = supplier")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("getValue")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .returns(boxed)
+                        .addStatement("$T current = supplier.$L()", primitive, supplierMethod)
+                        .addComment("Racing reporters may each box the value, any of which is correct to return.")
+                        .addStatement("$T boxed = value", boxed)
+                        .beginControlFlow("if ($L)", changed)
+                        .addStatement("boxed = current")
+                        .addStatement("value = boxed")
+                        .endControlFlow()
+                        .addStatement("return boxed")
+                        .build())
+                .addMethod(MethodSpec.methodBuilder("weak")
+                        .addModifiers(Modifier.PRIVATE, Modifier.STATIC)
+                        .addTypeVariable(TARGET_TYPE)
+                        .addParameter(TARGET_TYPE, "target")
+                        .addParameter(functionType(), "function")
+                        .returns(ClassName.bestGuess(adapterName))
+                        .addStatement(
+                                "$T reference = new $T<>(target)",
+                                ParameterizedTypeName.get(ClassName.get(WeakReference.class), TARGET_TYPE),
+                                WeakReference.class)
+                        .addCode("return new $L(() -> {\n$>", adapterName)
+                        .addStatement("$T referent = reference.get()", TARGET_TYPE)
+                        .addStatement(
+                                "return referent == null ? $L : function.$L(referent)", collectedValue, functionMethod)
+                        .addCode("$<});\n")
+                        .build())
+                .build();
+    }
+}
@@ -29,13 +29,38 @@ final class ReservedNames {
     static final String LIBRARY_VERSION_TAG = "libraryVersion";
     static final String JAVA_VERSION_FIELD = "JAVA_VERSION";
     static final String JAVA_VERSION_TAG = "javaVersion";
+    static final String SAMPLE_RATE_TAG = "sampleRate";
     static final String FACTORY_METHOD = "of";
     static final String BUILDER_METHOD = "builder";
+    static final String REGISTER_ALL_METHOD = "registerAll";
+    static final String CONSTANTS_CLASS = "Constants";
+    static final String RECORDER_METHOD = "recorder";
+    static final String NOOP_RECORDER_METHOD = "noopRecorder";
+    static final String RECORDER_CLASS = "Recorder";
+    static final String REGISTRY_RECORDER_CLASS = "RegistryRecorder";
+    static final String NOOP_RECORDER_CLASS = "NoOpRecorder";
+    static final String LONG_GAUGE_CLASS = "LongGauge";
+    static final String DOUBLE_GAUGE_CLASS = "DoubleGauge";
     static final String GAUGE_NAME = "gauge";
+    static final String TARGET_NAME = "target";
+    static final String DURATION_NAME = "duration";
+    static final String UNIT_NAME = "unit";
+    static final String VALUE_NAME = "value";
+    static final String SUPPLIER_NAME = "supplier";
+    static final String NANOS_NAME = "nanos";
+    static final String START_NAME = "start";
+    static final String THROWABLE_NAME = "throwable";
+    static final String METRIC_FIELD = "metric";
+    static final String METRIC_NAME_FIELD = "metricName";
     static final String REGISTRY_NAME = "registry";
 
     private static final ImmutableSet<String> RESERVED_NAMES = ImmutableSet.of(
-            FACTORY_METHOD, GAUGE_NAME, JAVA_VERSION_FIELD, LIBRARY_NAME_FIELD, LIBRARY_VERSION_FIELD, REGISTRY_NAME);
+            FACTORY_METHOD,
+            GAUGE_NAME,
+            JAVA_VERSION_FIELD,
+            LIBRARY_NAME_FIELD,
+            LIBRARY_VERSION_FIELD,
+            REGISTRY_NAME);
 
     /** Returns true if the input string cannot be used. */
     static boolean isValid(String input) {
@@ -43,5 +68,20 @@ final class ReservedNames {
         return SourceVersion.isName(input) && !RESERVED_NAMES.contains(input);
     }
 
+    /**
+     * Returns the methods generated only when an option enables them. Metric accessors are escaped to avoid these names
+     * only under that option, so that enabling nothing keeps existing accessor names.
+     */
+    static ImmutableSet<String> optionalMethods(GeneratorOptions options) {
+        ImmutableSet.Builder<String> names = ImmutableSet.builder();
+        if (options.registerAll()) {
+            names.add(REGISTER_ALL_METHOD);
+        }
+        if (options.recorder()) {
+            names.add(RECORDER_METHOD, NOOP_RECORDER_METHOD);
+        }
+        return names.build();
+    }
+
     private ReservedNames() {}
 }
@@ -22,6 +22,7 @@ import com.google.common.base.Suppliers;
 import com.palantir.conjure.java.serialization.ObjectMappers;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.metric.schema.lang.StringInterningModule;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
@@ -37,7 +38,8 @@ final class SchemaParser {
         return SUPPLIER.get();
     }
 
-    private final ObjectMapper mapper = ObjectMappers.newServerObjectMapper();
+    private final ObjectMapper mapper = ObjectMappers.newServerObjectMapper()
+            .registerModule(new StringInterningModule());
 
     List<MetricSchema> parseFile(Path file) {
         try (InputStream stream = Files.newInputStream(file)) {
@@ -18,16 +18,19 @@ package com.palantir.metric.schema;
 
 import com.codahale.metrics.Gauge;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Iterables;
 import com.google.errorprone.annotations.CheckReturnValue;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.Safe;
+import com.palantir.logsafe.SafeArg;
 import com.palantir.metric.schema.model.BuilderStage;
 import com.palantir.metric.schema.model.ImplementationVisibility;
 import com.palantir.metric.schema.model.StagedBuilderSpec;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import com.squareup.javapoet.ArrayTypeName;
 import com.squareup.javapoet.ClassName;
 import com.squareup.javapoet.CodeBlock;
 import com.squareup.javapoet.FieldSpec;
@@ -35,38 +38,98 @@ import com.squareup.javapoet.JavaFile;
 import com.squareup.javapoet.MethodSpec;
 import com.squareup.javapoet.ParameterSpec;
 import com.squareup.javapoet.ParameterizedTypeName;
+import com.squareup.javapoet.TypeName;
 import com.squareup.javapoet.TypeSpec;
+import com.squareup.javapoet.TypeVariableName;
 import com.squareup.javapoet.WildcardTypeName;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import javax.lang.model.element.Modifier;
 
 final class UtilityGenerator {
 
+    /** Type variable of the value returned by a timed supplier. */
+    private static final TypeVariableName TIMED_TYPE = TypeVariableName.get("T");
+
+    private static final ParameterizedTypeName TIMED_SUPPLIER =
+            ParameterizedTypeName.get(ClassName.get(Supplier.class), TIMED_TYPE);
+
+    private static final ParameterizedTypeName TIMED_STAGE =
+            ParameterizedTypeName.get(ClassName.get(CompletionStage.class), TIMED_TYPE);
+
+    private static final ParameterizedTypeName TIMED_STAGE_SUPPLIER =
+            ParameterizedTypeName.get(ClassName.get(Supplier.class), WildcardTypeName.subtypeOf(TIMED_STAGE));
+
+    /** Prebuilt safe tags of an enum tag value. */
+    private static final ParameterizedTypeName SAFE_TAGS = ParameterizedTypeName.get(
+            ClassName.get(Map.class), ClassName.get(String.class), ClassName.get(String.class));
+
+    /** Weakly held object passed alongside tag parameters to primitive gauge overloads. */
+    private static final ParameterSpec PRIMITIVE_GAUGE_TARGET =
+            ParameterSpec.builder(Object.class, ReservedNames.TARGET_NAME).build();
+
+    /** Names used by timing helpers, which must not conflict with tag parameters. */
+    private static final ImmutableList<ParameterSpec> TIMING_NAMES = ImmutableList.of(
+            ParameterSpec.builder(TIMED_SUPPLIER, ReservedNames.SUPPLIER_NAME).build(),
+            ParameterSpec.builder(long.class, ReservedNames.NANOS_NAME).build(),
+            ParameterSpec.builder(long.class, ReservedNames.START_NAME).build(),
+            ParameterSpec.builder(Throwable.class, ReservedNames.THROWABLE_NAME).build());
+
+    /** Values of an enum tag which async timing helpers set from the outcome of the timed stage. */
+    private static final ImmutableSet<String> OUTCOME_VALUES = ImmutableSet.of("success", "failure");
+
+    private static final String TIME_JAVADOC =
+            "Records the time taken by {@code supplier}, measured with {@link System#nanoTime()}.\n";
+
+    private static final String RECORD_NANOS_JAVADOC =
+            "Records a duration in nanoseconds, as measured with {@link System#nanoTime()}.\n";
+
+    private static final String HOT_JAVADOC =
+            "Resolves the metric from the registry once and caches it. If the registry later removes or replaces the\n"
+                    + "metric, the cached instance is still returned and its updates are no longer reported.\n";
+
+    private static final String TIME_ASYNC_JAVADOC =
+            "Records the time until the stage from {@code supplier} completes, measured with {@link System#nanoTime()}"
+                    + ".\n";
+
     static JavaFile generateUtilityClass(
             String namespace,
             MetricNamespace metrics,
             Optional<String> libraryName,
             Optional<String> libraryVersion,
             String packageName,
-            ImplementationVisibility visibility) {
+            GeneratorOptions options) {
+        ImplementationVisibility visibility = options.visibility();
         String name = metrics.getShortName().orElse(namespace);
         ClassName className = ClassName.get(packageName, className(name));
         TypeSpec.Builder builder = TypeSpec.classBuilder(className.simpleName())
                 .addModifiers(visibility.apply(Modifier.FINAL))
                 .addJavadoc(Javadoc.render(metrics.getDocs()))
-                .addField(TaggedMetricRegistry.class, ReservedNames.REGISTRY_NAME, Modifier.PRIVATE, Modifier.FINAL)
-                .addField(FieldSpec.builder(
-                                String.class,
-                                ReservedNames.JAVA_VERSION_FIELD,
-                                Modifier.PRIVATE,
-                                Modifier.STATIC,
-                                Modifier.FINAL)
-                        .initializer("$T.getProperty($S, $S)", System.class, "java.version", "unknown")
-                        .build());
+                .addField(TaggedMetricRegistry.class, ReservedNames.REGISTRY_NAME, Modifier.PRIVATE, Modifier.FINAL);
+        // Static state which requires work to initialize is deferred to a holder class in lazy mode, so that loading
+        // the utility class does not pay for it.
+        TypeSpec.Builder constantsBuilder = TypeSpec.classBuilder(ReservedNames.CONSTANTS_CLASS)
+                .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL);
+        TypeSpec.Builder staticsBuilder = options.lazyInitialization() ? constantsBuilder : builder;
+        staticsBuilder.addField(FieldSpec.builder(
+                        String.class,
+                        ReservedNames.JAVA_VERSION_FIELD,
+                        Modifier.PRIVATE,
+                        Modifier.STATIC,
+                        Modifier.FINAL)
+                .initializer("$T.getProperty($S, $S)", System.class, "java.version", "unknown")
+                .build());
 
         if (libraryName.isPresent()) {
             builder.addField(FieldSpec.builder(
@@ -77,7 +140,7 @@ final class UtilityGenerator {
                             Modifier.FINAL)
                     .initializer("$S", libraryName.get())
                     .build());
-            builder.addField(FieldSpec.builder(
+            staticsBuilder.addField(FieldSpec.builder(
                             String.class,
                             ReservedNames.LIBRARY_VERSION_FIELD,
                             Modifier.PRIVATE,
@@ -106,7 +169,9 @@ final class UtilityGenerator {
                 return;
             }
 
-            generateTagEnum(builder, name, visibility, tagDef);
+            builder.addType(tagEnum(tagClassName(name, tagDef), tagDef.getValues(), Optional.empty(), Modifier.PRIVATE)
+                    .addModifiers(visibility.apply())
+                    .build());
         });
 
         metrics.getMetrics().forEach((metricName, metricDef) -> {
@@ -115,9 +180,14 @@ final class UtilityGenerator {
             }
 
             if (metrics.getTags().isEmpty()) {
-                builder.addField(FieldSpec.builder(MetricName.class, metricNameField(metricName))
+                staticsBuilder.addField(FieldSpec.builder(MetricName.class, metricNameField(metricName))
                         .addModifiers(Modifier.PRIVATE, Modifier.STATIC, Modifier.FINAL)
-                        .initializer(metricName(namespace, metricName, libraryName, metricDef, metrics))
+                        .initializer(metricName(namespace, metricName, libraryName, metricDef, metrics, options))
+                        .build());
+            } else if (options.lazyInitialization()) {
+                // Not volatile: MetricName is immutable, so a racing thread at worst builds an equal instance.
+                builder.addField(FieldSpec.builder(MetricName.class, metricNameField(metricName))
+                        .addModifiers(Modifier.PRIVATE)
                         .build());
             } else {
                 builder.addField(FieldSpec.builder(MetricName.class, metricNameField(metricName))
@@ -132,21 +202,44 @@ final class UtilityGenerator {
             generateFactoryBuilder(name, className, metrics, builder, visibility);
         }
 
-        builder.addMethod(generateConstructor(name, namespace, libraryName, metrics));
+        builder.addMethod(generateConstructor(name, namespace, libraryName, metrics, options));
 
+        metrics.getTagValueSets()
+                .forEach((tagValueSet, values) -> builder.addType(tagEnum(
+                                ClassName.bestGuess(tagValueSet), values, Optional.empty(), Modifier.PRIVATE)
+                        .addModifiers(visibility.apply())
+                        .build()));
         metrics.getMetrics().forEach((metricName, definition) -> {
-            generateConstants(builder, metricName, definition, visibility);
-            if (numArgs(definition) <= 1) {
-                generateSimpleMetricFactory(
-                        builder, namespace, metricName, libraryName, metrics, definition, visibility);
+            generateConstants(builder, metricName, libraryName, definition, metrics, options);
+            if (!stagedBuilder(definition, options)) {
+                generateSimpleMetricFactory(builder, namespace, metricName, libraryName, metrics, definition, options);
             } else {
-                generateMetricFactoryBuilder(
-                        builder, namespace, metricName, libraryName, definition, metrics, visibility);
+                generateMetricFactoryBuilder(builder, namespace, metricName, libraryName, definition, metrics, options);
             }
         });
 
+        if (options.registerAll()) {
+            builder.addMethod(generateRegisterAll(metrics, options));
+        }
+
+        if (options.recorder()) {
+            generateRecorder(builder, className, metrics, options);
+        }
+
         builder.addMethod(generateToString(metrics, className));
 
+        if (options.lazyInitialization()) {
+            builder.addType(constantsBuilder.build());
+        }
+
+        if (options.primitiveGauges()
+                && metrics.getMetrics().values().stream()
+                        .anyMatch(definition -> MetricType.GAUGE.equals(definition.getType()))) {
+            for (PrimitiveGauge primitiveGauge : PrimitiveGauge.values()) {
+                builder.addType(primitiveGauge.adapter());
+            }
+        }
+
         return JavaFile.builder(className.packageName(), builder.build())
                 .skipJavaLangImports(true)
                 .indent("    ")
@@ -300,7 +393,11 @@ final class UtilityGenerator {
     }
 
     private static MethodSpec generateConstructor(
-            String name, String namespace, Optional<String> libraryName, MetricNamespace metrics) {
+            String name,
+            String namespace,
+            Optional<String> libraryName,
+            MetricNamespace metrics,
+            GeneratorOptions options) {
         MethodSpec.Builder builder = MethodSpec.constructorBuilder()
                 .addModifiers(Modifier.PRIVATE)
                 .addParameter(TaggedMetricRegistry.class, ReservedNames.REGISTRY_NAME)
@@ -326,11 +423,11 @@ final class UtilityGenerator {
                 return;
             }
 
-            if (!metrics.getTags().isEmpty()) {
+            if (!metrics.getTags().isEmpty() && !options.lazyInitialization()) {
                 builder.addStatement(
                         "this.$L = $L",
                         metricNameField(metricName),
-                        metricName(namespace, metricName, libraryName, metricDef, metrics));
+                        metricName(namespace, metricName, libraryName, metricDef, metrics, options));
             }
         });
 
@@ -340,40 +437,118 @@ final class UtilityGenerator {
     private static void generateConstants(
             TypeSpec.Builder builder,
             String metricName,
+            Optional<String> libraryName,
             MetricDefinition definition,
-            ImplementationVisibility visibility) {
+            MetricNamespace metricNamespace,
+            GeneratorOptions options) {
+        Optional<TagDefinition> safeTagsTag = safeTagsTag(definition, options);
         definition.getTagDefinitions().forEach(tagDef -> {
-            if (tagDef.getValues().size() <= 1) {
+            // Tags referencing a tag value set share the enum generated for the set.
+            if (tagDef.getValues().size() <= 1 || tagDef.getValueSet().isPresent()) {
                 return;
             }
 
-            generateTagEnum(builder, metricName, visibility, tagDef);
+            builder.addType(tagEnum(
+                            tagClassName(metricName, tagDef),
+                            tagDef.getValues(),
+                            safeTagsTag
+                                    .filter(tagDef::equals)
+                                    .map(_tag -> safeTags(tagDef, libraryName, definition, metricNamespace, options)),
+                            Modifier.PRIVATE)
+                    .addModifiers(options.visibility().apply())
+                    .build());
         });
     }
 
-    private static void generateTagEnum(
-            TypeSpec.Builder builder, String metricName, ImplementationVisibility visibility, TagDefinition tagDef) {
-        TypeSpec.Builder enumBuilder = TypeSpec.enumBuilder(tagClassName(metricName, tagDef));
-        tagDef.getValues().forEach(value -> {
+    /**
+     * Generates a top level enum for a tag value set declared by the schema, shared by the utility classes of every
+     * namespace. Values are package private, as utilities are generated in the same package.
+     */
+    static JavaFile generateTagValueSet(
+            String tagValueSet, Set<TagValue> values, String packageName, GeneratorOptions options) {
+        return JavaFile.builder(
+                        packageName,
+                        tagEnum(ClassName.get(packageName, tagValueSet), values, Optional.empty())
+                                .addModifiers(options.visibility().apply())
+                                .build())
+                .skipJavaLangImports(true)
+                .indent("    ")
+                .build();
+    }
+
+    /**
+     * Generates an enum of tag values. When safe tags are given, each constant also holds a prebuilt map of them, which
+     * building a {@link MetricName} adds at once in place of putting each tag.
+     */
+    private static TypeSpec.Builder tagEnum(
+            ClassName enumName, Set<TagValue> values, Optional<CodeBlock> safeTags, Modifier... getterModifiers) {
+        TypeSpec.Builder enumBuilder = TypeSpec.enumBuilder(enumName);
+        values.forEach(value -> {
             TypeSpec.Builder tagValueBuilder = TypeSpec.anonymousClassBuilder("$S", value.getValue());
             value.getDocs().map(Javadoc::render).ifPresent(tagValueBuilder::addJavadoc);
             enumBuilder.addEnumConstant(Custodian.anyToUpperUnderscore(value.getValue()), tagValueBuilder.build());
         });
 
-        builder.addType(enumBuilder
-                .addModifiers(visibility.apply())
+        MethodSpec.Builder constructor = MethodSpec.constructorBuilder()
+                .addParameter(String.class, "value")
+                .addStatement("this.value = value");
+        enumBuilder
                 .addField(FieldSpec.builder(String.class, "value", Modifier.PRIVATE, Modifier.FINAL)
                         .build())
-                .addMethod(MethodSpec.constructorBuilder()
-                        .addParameter(String.class, "value")
-                        .addStatement("this.value = value")
-                        .build())
                 .addMethod(MethodSpec.methodBuilder("getValue")
-                        .addModifiers(Modifier.PRIVATE)
+                        .addModifiers(getterModifiers)
                         .returns(String.class)
                         .addStatement("return value")
-                        .build())
-                .build());
+                        .build());
+        safeTags.ifPresent(tags -> {
+            enumBuilder
+                    .addField(FieldSpec.builder(SAFE_TAGS, "safeTags", Modifier.PRIVATE, Modifier.FINAL)
+                            .build())
+                    .addMethod(MethodSpec.methodBuilder("getSafeTags")
+                            .addModifiers(getterModifiers)
+                            .returns(SAFE_TAGS)
+                            .addStatement("return safeTags")
+                            .build());
+            constructor.addStatement("this.safeTags = $T.ofEntries($L)", Map.class, tags);
+        });
+        return enumBuilder.addMethod(constructor.build());
+    }
+
+    /**
+     * Returns the tag whose enum constants carry prebuilt safe tags, the first tag of the metric with values generated
+     * into a dedicated enum. Other enum tags are put one at a time, as a map holding a single tag would save nothing.
+     */
+    private static Optional<TagDefinition> safeTagsTag(MetricDefinition definition, GeneratorOptions options) {
+        if (!options.tagEntries()) {
+            return Optional.empty();
+        }
+        return definition.getTagDefinitions().stream()
+                .filter(tagDef -> tagDef.getValues().size() > 1 && tagDef.getValueSet().isEmpty())
+                .findFirst();
+    }
+
+    /**
+     * Entries of the safe tags prebuilt on each constant of the enum of {@code tagDef}: its own tag, along with each
+     * tag of the metric which takes the same value on every call.
+     */
+    private static CodeBlock safeTags(
+            TagDefinition tagDef,
+            Optional<String> libraryName,
+            MetricDefinition definition,
+            MetricNamespace metricNamespace,
+            GeneratorOptions options) {
+        List<CodeBlock> entries = new ArrayList<>();
+        entries.add(CodeBlock.of("$T.entry($S, value)", Map.class, tagDef.getName()));
+        Stream.concat(metricNamespace.getTags().stream(), definition.getTagDefinitions().stream())
+                .filter(tag -> tag.getValues().size() == 1)
+                .forEach(tag -> entries.add(CodeBlock.of(
+                        "$T.entry($S, $S)",
+                        Map.class,
+                        tag.getName(),
+                        Iterables.getOnlyElement(tag.getValues()).getValue())));
+        generatedTags(libraryName, definition, options)
+                .forEach(tag -> entries.add(CodeBlock.of("$T.entry($L)", Map.class, tag)));
+        return CodeBlock.join(entries, ", ");
     }
 
     private static String className(String namespace) {
@@ -385,9 +560,23 @@ final class UtilityGenerator {
             String metricName,
             Optional<String> libraryName,
             MetricDefinition definition,
-            MetricNamespace metricNamespace) {
+            MetricNamespace metricNamespace,
+            GeneratorOptions options) {
         String safeName = namespace + '.' + metricName;
         CodeBlock.Builder builder = CodeBlock.builder().add("$T.builder().safeName($S)", MetricName.class, safeName);
+        Optional<TagDefinition> safeTagsTag = safeTagsTag(definition, options);
+        if (safeTagsTag.isPresent()) {
+            // Tags taking the same value on each call are prebuilt on the enum constants.
+            builder.add(".putAllSafeTags($L.getSafeTags())", Custodian.sanitizeName(safeTagsTag.get().getName()));
+            metricNamespace.getTags().stream()
+                    .filter(tagDef -> tagDef.getValues().size() != 1)
+                    .forEach(tagDef ->
+                            builder.add(".putSafeTags($S, $L)", tagDef.getName(), tagValueField(tagDef.getName())));
+            definition.getTagDefinitions().stream()
+                    .filter(tagDef -> tagDef.getValues().size() != 1 && !tagDef.equals(safeTagsTag.get()))
+                    .forEach(tagDef -> putSafeTags(tagDef, builder));
+            return builder.add(".build()").build();
+        }
         metricNamespace.getTags().forEach(tagDef -> {
             if (tagDef.getValues().size() != 1) {
                 builder.add(".putSafeTags($S, $L)", tagDef.getName(), tagValueField(tagDef.getName()));
@@ -400,20 +589,270 @@ final class UtilityGenerator {
         });
 
         definition.getTagDefinitions().forEach(tagDef -> putSafeTags(tagDef, builder));
+        generatedTags(libraryName, definition, options).forEach(tag -> builder.add(".putSafeTags($L)", tag));
+        return builder.add(".build()").build();
+    }
+
+    /**
+     * Name and value of each tag this generator adds to a metric: the sample rate of a sampled metric, by which
+     * consumers divide observed counts, and the library and Java version tags, leaving out those the metric overrides.
+     */
+    private static List<CodeBlock> generatedTags(
+            Optional<String> libraryName, MetricDefinition definition, GeneratorOptions options) {
+        List<CodeBlock> tags = new ArrayList<>();
+        definition
+                .getSampleRate()
+                .ifPresent(sampleRate ->
+                        tags.add(CodeBlock.of("$S, $S", ReservedNames.SAMPLE_RATE_TAG, Double.toString(sampleRate))));
         ImmutableSortedSet<String> insensitiveTags = insensitiveTags(definition);
         if (libraryName.isPresent()) {
             if (!insensitiveTags.contains(ReservedNames.LIBRARY_NAME_TAG)) {
-                builder.add(".putSafeTags($S, $L)", ReservedNames.LIBRARY_NAME_TAG, ReservedNames.LIBRARY_NAME_FIELD);
+                tags.add(CodeBlock.of("$S, $L", ReservedNames.LIBRARY_NAME_TAG, ReservedNames.LIBRARY_NAME_FIELD));
             }
             if (!insensitiveTags.contains(ReservedNames.LIBRARY_VERSION_TAG)) {
-                builder.add(
-                        ".putSafeTags($S, $L)", ReservedNames.LIBRARY_VERSION_TAG, ReservedNames.LIBRARY_VERSION_FIELD);
+                tags.add(CodeBlock.of(
+                        "$S, $L",
+                        ReservedNames.LIBRARY_VERSION_TAG,
+                        constant(ReservedNames.LIBRARY_VERSION_FIELD, options)));
             }
         }
         if (!insensitiveTags.contains(ReservedNames.JAVA_VERSION_TAG)) {
-            builder.add(".putSafeTags($S, $L)", ReservedNames.JAVA_VERSION_TAG, ReservedNames.JAVA_VERSION_FIELD);
+            tags.add(CodeBlock.of(
+                    "$S, $L", ReservedNames.JAVA_VERSION_TAG, constant(ReservedNames.JAVA_VERSION_FIELD, options)));
         }
-        return builder.add(".build()").build();
+        return tags;
+    }
+
+    /**
+     * Builds the {@link MetricName} stored in the given field on first access. Publication is racy but benign, the
+     * fast path is a single field read and null check.
+     */
+    private static CodeBlock lazyMetricName(
+            String namespace,
+            String metricName,
+            Optional<String> libraryName,
+            MetricDefinition definition,
+            MetricNamespace metricNamespace,
+            GeneratorOptions options) {
+        return CodeBlock.builder()
+                .addStatement("$T result = $L", MetricName.class, metricNameField(metricName))
+                .beginControlFlow("if (result == null)")
+                .addStatement(
+                        "result = $L",
+                        metricName(namespace, metricName, libraryName, definition, metricNamespace, options))
+                .addStatement("$L = result", metricNameField(metricName))
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
+    }
+
+    /** Parameters accepted by the sampled update method of a timer or histogram. */
+    private static List<ParameterSpec> sampledUpdateParameters(MetricType type) {
+        if (MetricType.TIMER.equals(type)) {
+            return ImmutableList.of(
+                    ParameterSpec.builder(long.class, ReservedNames.DURATION_NAME).build(),
+                    ParameterSpec.builder(TimeUnit.class, ReservedNames.UNIT_NAME).build());
+        }
+        return ImmutableList.of(ParameterSpec.builder(long.class, ReservedNames.VALUE_NAME).build());
+    }
+
+    private static void checkUpdateParameters(
+            String metricName, List<ParameterSpec> tagParameters, List<ParameterSpec> updateParameters) {
+        tagParameters.forEach(tagParameter -> Preconditions.checkArgument(
+                updateParameters.stream().noneMatch(parameter -> parameter.name.equals(tagParameter.name)),
+                "Metric tags conflict with update parameters",
+                SafeArg.of("metricName", metricName),
+                SafeArg.of("tag", tagParameter.name)));
+    }
+
+    private static String sampledUpdateJavadoc(double sampleRate) {
+        return "Records a random " + sampleRate + " fraction of updates. The metric is tagged with {@code "
+                + ReservedNames.SAMPLE_RATE_TAG + "},\nby which observed counts must be divided.\n";
+    }
+
+    private static CodeBlock sampledUpdate(double sampleRate, CodeBlock metric, List<ParameterSpec> updateParameters) {
+        return sampledUpdate(sampleRate, metric, parameterNames(updateParameters));
+    }
+
+    /** Updates {@code metric} on a thread-local random subset of calls. */
+    private static CodeBlock sampledUpdate(double sampleRate, CodeBlock metric, CodeBlock arguments) {
+        CodeBlock update = CodeBlock.of("$L.update($L)", metric, arguments);
+        if (sampleRate >= 1) {
+            return CodeBlock.builder().addStatement("$L", update).build();
+        }
+        return CodeBlock.builder()
+                .beginControlFlow("if ($T.current().nextDouble() < $L)", ThreadLocalRandom.class, sampleRate)
+                .addStatement("$L", update)
+                .endControlFlow()
+                .build();
+    }
+
+    private static CodeBlock parameterNames(List<ParameterSpec> parameters) {
+        return CodeBlock.join(
+                parameters.stream()
+                        .map(parameter -> CodeBlock.of("$N", parameter))
+                        .collect(ImmutableList.toImmutableList()),
+                ", ");
+    }
+
+    /** Times {@code supplier} with {@link System#nanoTime()}, which unlike {@code Timer.time()} does not allocate. */
+    private static CodeBlock timeBody(double sampleRate, CodeBlock metric) {
+        return CodeBlock.builder()
+                .addStatement("long $L = $T.nanoTime()", ReservedNames.START_NAME, System.class)
+                .beginControlFlow("try")
+                .addStatement("return $L.get()", ReservedNames.SUPPLIER_NAME)
+                .nextControlFlow("finally")
+                .add(sampledUpdate(sampleRate, metric, elapsedNanos()))
+                .endControlFlow()
+                .build();
+    }
+
+    private static CodeBlock recordNanosBody(double sampleRate, CodeBlock metric) {
+        return sampledUpdate(
+                sampleRate, metric, CodeBlock.of("$L, $T.NANOSECONDS", ReservedNames.NANOS_NAME, TimeUnit.class));
+    }
+
+    private static MethodSpec.Builder timeMethod(String name) {
+        return MethodSpec.methodBuilder(name)
+                .addTypeVariable(TIMED_TYPE)
+                .returns(TIMED_TYPE)
+                .addParameter(TIMED_SUPPLIER, ReservedNames.SUPPLIER_NAME);
+    }
+
+    private static MethodSpec.Builder recordNanosMethod(String name) {
+        return MethodSpec.methodBuilder(name).addParameter(long.class, ReservedNames.NANOS_NAME);
+    }
+
+    private static MethodSpec.Builder timeAsyncMethod(String name) {
+        return MethodSpec.methodBuilder(name)
+                .addTypeVariable(TIMED_TYPE)
+                .returns(TIMED_STAGE)
+                .addParameter(TIMED_STAGE_SUPPLIER, ReservedNames.SUPPLIER_NAME);
+    }
+
+    /** Times the stage returned by {@code supplier} until it completes, with a single callback. */
+    private static CodeBlock timeAsyncBody(double sampleRate, CodeBlock metric, String throwableName) {
+        return CodeBlock.builder()
+                .addStatement("long $L = $T.nanoTime()", ReservedNames.START_NAME, System.class)
+                .add(
+                        "return $L.get().whenComplete(($L, $L) -> {\n$>",
+                        ReservedNames.SUPPLIER_NAME,
+                        "_value",
+                        throwableName)
+                .add(sampledUpdate(sampleRate, metric, elapsedNanos()))
+                .add("$<});\n")
+                .build();
+    }
+
+    /** Timing helpers for a timer without a staged builder, documented like the timer itself. */
+    private static void generateTimingHelpers(
+            TypeSpec.Builder outerBuilder,
+            String metricName,
+            MetricDefinition definition,
+            List<ParameterSpec> tagParameters,
+            CodeBlock metric,
+            ImplementationVisibility visibility) {
+        checkUpdateParameters(metricName, tagParameters, TIMING_NAMES);
+        double sampleRate = definition.getSampleRate().orElse(1);
+        MethodSpec.Builder time = MethodSpec.methodBuilder(Custodian.sanitizeName("time." + metricName))
+                .addModifiers(visibility.apply())
+                .addTypeVariable(TIMED_TYPE)
+                .returns(TIMED_TYPE)
+                .addParameters(tagParameters)
+                .addParameter(TIMED_SUPPLIER, ReservedNames.SUPPLIER_NAME)
+                .addJavadoc(Javadoc.render(definition.getDocs()))
+                .addJavadoc("\n<p>$L", TIME_JAVADOC);
+        MethodSpec.Builder recordNanos = MethodSpec.methodBuilder(
+                        Custodian.sanitizeName("record." + metricName + ".nanos"))
+                .addModifiers(visibility.apply())
+                .addParameters(tagParameters)
+                .addParameter(long.class, ReservedNames.NANOS_NAME)
+                .addJavadoc(Javadoc.render(definition.getDocs()))
+                .addJavadoc("\n<p>$L", RECORD_NANOS_JAVADOC);
+        definition.getSampleRate().ifPresent(rate -> {
+            time.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate));
+            recordNanos.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate));
+        });
+        outerBuilder.addMethod(time.addCode(timeBody(sampleRate, metric)).build());
+        outerBuilder.addMethod(recordNanos.addCode(recordNanosBody(sampleRate, metric)).build());
+    }
+
+    /**
+     * Async timing helper on the utility class, taking tags as parameters. An enum tag with only the values success
+     * and failure is not a parameter, it is set from the outcome of the stage instead. Staged metrics only use this
+     * helper when they have such a tag, since the stages before the build stage would already have chosen its value;
+     * otherwise {@code timeAsync} sits on the build stage beside {@code time} and {@code recordNanos}.
+     */
+    private static MethodSpec asyncTimingHelper(
+            String metricName, MetricDefinition definition, GeneratorOptions options) {
+        Optional<TagDefinition> outcomeTag = outcomeTag(definition);
+        List<TagDefinition> tags = definition.getTagDefinitions().stream()
+                .filter(UtilityGenerator::tagDefinitionRequiresParam)
+                .collect(ImmutableList.toImmutableList());
+        List<CodeBlock> arguments = new ArrayList<>(tags.size());
+        List<ParameterSpec> parameters = new ArrayList<>(tags.size());
+        for (TagDefinition tag : tags) {
+            ClassName tagClass = tagClassName(metricName, tag);
+            if (outcomeTag.isPresent() && outcomeTag.get().equals(tag)) {
+                arguments.add(CodeBlock.of(
+                        "$L == null ? $T.$L : $T.$L",
+                        ReservedNames.THROWABLE_NAME,
+                        tagClass,
+                        Custodian.anyToUpperUnderscore("success"),
+                        tagClass,
+                        Custodian.anyToUpperUnderscore("failure")));
+            } else {
+                ParameterSpec parameter = ParameterSpec.builder(tagClass, Custodian.sanitizeName(tag.getName()))
+                        .addAnnotation(Safe.class)
+                        .build();
+                parameters.add(parameter);
+                arguments.add(CodeBlock.of("$N", parameter));
+            }
+        }
+        checkUpdateParameters(metricName, parameters, TIMING_NAMES);
+        CodeBlock metric = !stagedBuilder(definition, options)
+                ? CodeBlock.of("$L($L)", metricMethod(metricName, options), CodeBlock.join(arguments, ", "))
+                : CodeBlock.of(
+                        "$L()$L.build()",
+                        metricMethod(metricName, options),
+                        IntStream.range(0, tags.size())
+                                .mapToObj(i -> CodeBlock.of(
+                                        ".$L($L)", Custodian.sanitizeName(tags.get(i).getName()), arguments.get(i)))
+                                .collect(CodeBlock.joining("")));
+        MethodSpec.Builder method = MethodSpec.methodBuilder(Custodian.sanitizeName("time." + metricName + ".async"))
+                .addModifiers(options.visibility().apply())
+                .addTypeVariable(TIMED_TYPE)
+                .returns(TIMED_STAGE)
+                .addParameters(parameters)
+                .addParameter(TIMED_STAGE_SUPPLIER, ReservedNames.SUPPLIER_NAME)
+                .addJavadoc(Javadoc.render(definition.getDocs()))
+                .addJavadoc("\n<p>$L", TIME_ASYNC_JAVADOC);
+        outcomeTag.ifPresent(tag -> method.addJavadoc(
+                "\n<p>Sets {@code $L} to success or failure by how the stage completes.\n", tag.getName()));
+        definition.getSampleRate().ifPresent(rate -> method.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate)));
+        return method.addCode(timeAsyncBody(
+                        definition.getSampleRate().orElse(1),
+                        metric,
+                        outcomeTag.isPresent() ? ReservedNames.THROWABLE_NAME : "_" + ReservedNames.THROWABLE_NAME))
+                .build();
+    }
+
+    private static Optional<TagDefinition> outcomeTag(MetricDefinition definition) {
+        List<TagDefinition> outcomeTags = definition.getTagDefinitions().stream()
+                .filter(tag -> tag.getValues().size() == OUTCOME_VALUES.size()
+                        && tag.getValues().stream().map(TagValue::getValue).allMatch(OUTCOME_VALUES::contains))
+                .collect(ImmutableList.toImmutableList());
+        return outcomeTags.size() == 1 ? Optional.of(outcomeTags.get(0)) : Optional.empty();
+    }
+
+    private static CodeBlock elapsedNanos() {
+        return CodeBlock.of(
+                "$T.nanoTime() - $L, $T.NANOSECONDS", System.class, ReservedNames.START_NAME, TimeUnit.class);
+    }
+
+    /** References a static field which may live in the constants holder class. */
+    private static String constant(String field, GeneratorOptions options) {
+        return options.lazyInitialization() ? ReservedNames.CONSTANTS_CLASS + '.' + field : field;
     }
 
     private static void putSafeTags(TagDefinition tagDef, CodeBlock.Builder builder) {
@@ -435,6 +874,253 @@ final class UtilityGenerator {
                 .collect(ImmutableSortedSet.toImmutableSortedSet(String.CASE_INSENSITIVE_ORDER));
     }
 
+    /** Registers each metric for the cartesian product of its enum tag values. */
+    private static MethodSpec generateRegisterAll(MetricNamespace metricNamespace, GeneratorOptions options) {
+        MethodSpec.Builder builder = MethodSpec.methodBuilder(ReservedNames.REGISTER_ALL_METHOD)
+                .addModifiers(options.visibility().apply())
+                .addJavadoc("Registers all metrics with enumerable tags. Gauges and metrics with free-form tags are "
+                        + "skipped.\n");
+        metricNamespace.getMetrics().forEach((metricName, definition) -> {
+            if (!isEnumerable(definition)) {
+                return;
+            }
+            List<TagDefinition> tags = definition.getTagDefinitions().stream()
+                    .filter(UtilityGenerator::tagDefinitionRequiresParam)
+                    .collect(ImmutableList.toImmutableList());
+            tags.forEach(tag -> builder.beginControlFlow(
+                    "for ($T $L : $T.values())",
+                    tagClassName(metricName, tag),
+                    Custodian.sanitizeName(tag.getName()),
+                    tagClassName(metricName, tag)));
+            CodeBlock metricNameInvocation = !stagedBuilder(definition, options)
+                    ? CodeBlock.of(
+                            "$L($L)",
+                            Custodian.sanitizeName(metricName + "MetricName"),
+                            tags.stream()
+                                    .map(tag -> CodeBlock.of("$L", Custodian.sanitizeName(tag.getName())))
+                                    .collect(CodeBlock.joining(", ")))
+                    : CodeBlock.of(
+                            "$L()$L.buildMetricName()",
+                            metricMethod(metricName, options),
+                            tags.stream()
+                                    .map(tag -> CodeBlock.of(".$1L($1L)", Custodian.sanitizeName(tag.getName())))
+                                    .collect(CodeBlock.joining("")));
+            builder.addStatement(
+                    "$L.$L($L)",
+                    ReservedNames.REGISTRY_NAME,
+                    MetricTypes.registryAccessor(definition.getType()),
+                    metricNameInvocation);
+            tags.forEach(_tag -> builder.endControlFlow());
+        });
+        return builder.build();
+    }
+
+    private static boolean isEnumerable(MetricDefinition definition) {
+        return !MetricType.GAUGE.equals(definition.getType())
+                && definition.getTagDefinitions().stream()
+                        .filter(UtilityGenerator::tagDefinitionRequiresParam)
+                        .noneMatch(tag -> tag.getValues().isEmpty());
+    }
+
+    /**
+     * Produces a {@code Recorder} interface with a method recording a single update to each non-gauge metric, a
+     * registry backed implementation and a constant no-op implementation.
+     */
+    private static void generateRecorder(
+            TypeSpec.Builder outerBuilder,
+            ClassName className,
+            MetricNamespace metricNamespace,
+            GeneratorOptions options) {
+        ImplementationVisibility visibility = options.visibility();
+        ClassName recorderName = className.nestedClass(ReservedNames.RECORDER_CLASS);
+        ClassName registryRecorderName = className.nestedClass(ReservedNames.REGISTRY_RECORDER_CLASS);
+        ClassName noOpRecorderName = className.nestedClass(ReservedNames.NOOP_RECORDER_CLASS);
+        TypeSpec.Builder recorder = TypeSpec.interfaceBuilder(recorderName)
+                .addModifiers(visibility.apply())
+                .addJavadoc("Records a single update to each metric in the namespace, gauges are not included.\n");
+        TypeSpec.Builder registryRecorder = TypeSpec.classBuilder(registryRecorderName)
+                .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
+                .addSuperinterface(recorderName);
+        TypeSpec.Builder noOpRecorder = TypeSpec.enumBuilder(noOpRecorderName)
+                .addModifiers(Modifier.PRIVATE)
+                .addSuperinterface(recorderName)
+                .addEnumConstant("INSTANCE");
+        metricNamespace.getMetrics().forEach((metricName, definition) -> {
+            if (MetricType.GAUGE.equals(definition.getType())) {
+                return;
+            }
+            List<ParameterSpec> tagParameters = tagParameters(metricName, definition);
+            List<ParameterSpec> recordParameters = recordParameters(definition.getType());
+            checkUpdateParameters(metricName, tagParameters, recordParameters);
+            MethodSpec.Builder abstractMethod = MethodSpec.methodBuilder(
+                            Custodian.sanitizeName(recordVerb(definition.getType()) + '.' + metricName))
+                    .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                    .addParameters(tagParameters)
+                    .addParameters(recordParameters)
+                    .addJavadoc(Javadoc.render(definition.getDocs()));
+            definition
+                    .getSampleRate()
+                    .ifPresent(sampleRate -> abstractMethod.addJavadoc("\n<p>$L", sampledUpdateJavadoc(sampleRate)));
+            MethodSpec template = abstractMethod.build();
+            recorder.addMethod(template);
+
+            CodeBlock metric = !stagedBuilder(definition, options)
+                    ? CodeBlock.of(
+                            "$T.this.$L($L)",
+                            className,
+                            metricMethod(metricName, options),
+                            parameterNames(tagParameters))
+                    : CodeBlock.of(
+                            "$T.this.$L()$L.build()",
+                            className,
+                            metricMethod(metricName, options),
+                            tagParameters.stream()
+                                    .map(parameter -> CodeBlock.of(".$1N($1N)", parameter))
+                                    .collect(CodeBlock.joining("")));
+            registryRecorder.addMethod(implementation(template)
+                    .addCode(recordUpdate(definition, metric, recordParameters))
+                    .build());
+            noOpRecorder.addMethod(implementation(template).build());
+        });
+
+        outerBuilder.addMethod(MethodSpec.methodBuilder(ReservedNames.RECORDER_METHOD)
+                .addModifiers(visibility.apply())
+                .returns(recorderName)
+                .addJavadoc("Returns a {@link $T} which records into metrics from the registry.\n", recorderName)
+                .addStatement("return new $T()", registryRecorderName)
+                .build());
+        outerBuilder.addMethod(MethodSpec.methodBuilder(ReservedNames.NOOP_RECORDER_METHOD)
+                .addModifiers(visibility.apply(Modifier.STATIC))
+                .returns(recorderName)
+                .addJavadoc(
+                        "Returns a {@link $T} which discards all updates, so that the JIT may remove calls.\n",
+                        recorderName)
+                .addStatement("return $T.INSTANCE", noOpRecorderName)
+                .build());
+        outerBuilder.addType(recorder.build());
+        outerBuilder.addType(registryRecorder.build());
+        outerBuilder.addType(noOpRecorder.build());
+    }
+
+    /**
+     * Produces a {@code bind} method which resolves the metric for a tag combination once, returning an immutable
+     * handle which callers may hold onto and record into without rebuilding the {@link MetricName}.
+     */
+    private static void generateBind(
+            TypeSpec.Builder outerBuilder,
+            String metricName,
+            MetricDefinition definition,
+            List<ParameterSpec> tagParameters,
+            CodeBlock metricNameExpression,
+            ImplementationVisibility visibility) {
+        TypeName metricType = MetricTypes.type(definition.getType());
+        List<ParameterSpec> recordParameters = recordParameters(definition.getType());
+        checkUpdateParameters(
+                metricName,
+                tagParameters,
+                ImmutableList.of(ParameterSpec.builder(MetricName.class, ReservedNames.METRIC_NAME_FIELD)
+                        .build()));
+        ClassName handleName = ClassName.bestGuess(Custodian.anyToUpperCamel(metricName) + "Handle");
+        MethodSpec.Builder recordMethod = MethodSpec.methodBuilder(recordVerb(definition.getType()))
+                .addModifiers(Modifier.PUBLIC)
+                .addParameters(recordParameters)
+                .addCode(recordUpdate(definition, CodeBlock.of("$L", ReservedNames.METRIC_FIELD), recordParameters));
+        definition.getSampleRate().ifPresent(rate -> recordMethod.addJavadoc(sampledUpdateJavadoc(rate)));
+        outerBuilder.addType(TypeSpec.classBuilder(handleName)
+                .addModifiers(visibility.apply(Modifier.STATIC, Modifier.FINAL))
+                .addJavadoc("Metric resolved for one combination of tags, see {@link #$L}.\n", bindMethod(metricName))
+                .addField(MetricName.class, ReservedNames.METRIC_NAME_FIELD, Modifier.PRIVATE, Modifier.FINAL)
+                .addField(metricType, ReservedNames.METRIC_FIELD, Modifier.PRIVATE, Modifier.FINAL)
+                .addMethod(MethodSpec.constructorBuilder()
+                        .addModifiers(Modifier.PRIVATE)
+                        .addParameter(MetricName.class, ReservedNames.METRIC_NAME_FIELD)
+                        .addParameter(metricType, ReservedNames.METRIC_FIELD)
+                        .addStatement("this.$1L = $1L", ReservedNames.METRIC_NAME_FIELD)
+                        .addStatement("this.$1L = $1L", ReservedNames.METRIC_FIELD)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(ReservedNames.METRIC_NAME_FIELD)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(MetricName.class)
+                        .addStatement("return $L", ReservedNames.METRIC_NAME_FIELD)
+                        .build())
+                .addMethod(MethodSpec.methodBuilder(ReservedNames.METRIC_FIELD)
+                        .addModifiers(Modifier.PUBLIC)
+                        .returns(metricType)
+                        .addStatement("return $L", ReservedNames.METRIC_FIELD)
+                        .build())
+                .addMethod(recordMethod.build())
+                .build());
+        outerBuilder.addMethod(MethodSpec.methodBuilder(bindMethod(metricName))
+                .addModifiers(visibility.apply())
+                .addAnnotation(CheckReturnValue.class)
+                .addParameters(tagParameters)
+                .returns(handleName)
+                .addJavadoc(Javadoc.render(definition.getDocs()))
+                .addJavadoc("\n<p>Resolves the metric once, the returned handle may be reused for these tags.\n")
+                .addStatement("$T $L = $L", MetricName.class, ReservedNames.METRIC_NAME_FIELD, metricNameExpression)
+                .addStatement(
+                        "return new $T($L, $L.$L($L))",
+                        handleName,
+                        ReservedNames.METRIC_NAME_FIELD,
+                        ReservedNames.REGISTRY_NAME,
+                        MetricTypes.registryAccessor(definition.getType()),
+                        ReservedNames.METRIC_NAME_FIELD)
+                .build());
+    }
+
+    private static String bindMethod(String metricName) {
+        return Custodian.sanitizeName("bind." + metricName);
+    }
+
+    private static String recordVerb(MetricType type) {
+        if (MetricType.METER.equals(type)) {
+            return "mark";
+        } else if (MetricType.COUNTER.equals(type)) {
+            return "inc";
+        }
+        return "update";
+    }
+
+    /** Parameters accepted by the recorder method of a metric, in addition to its tags. */
+    private static List<ParameterSpec> recordParameters(MetricType type) {
+        if (MetricType.METER.equals(type)) {
+            return ImmutableList.of();
+        } else if (MetricType.COUNTER.equals(type)) {
+            return ImmutableList.of(
+                    ParameterSpec.builder(long.class, ReservedNames.VALUE_NAME).build());
+        }
+        return sampledUpdateParameters(type);
+    }
+
+    private static CodeBlock recordUpdate(
+            MetricDefinition definition, CodeBlock metric, List<ParameterSpec> parameters) {
+        if (MetricType.METER.equals(definition.getType())) {
+            return CodeBlock.builder().addStatement("$L.mark()", metric).build();
+        } else if (MetricType.COUNTER.equals(definition.getType())) {
+            return CodeBlock.builder()
+                    .addStatement("$L.inc($L)", metric, parameterNames(parameters))
+                    .build();
+        }
+        return sampledUpdate(definition.getSampleRate().orElse(1), metric, parameters);
+    }
+
+    /** Overrides an abstract interface method, without its documentation. */
+    private static MethodSpec.Builder implementation(MethodSpec abstractMethod) {
+        return MethodSpec.methodBuilder(abstractMethod.name)
+                .addModifiers(Modifier.PUBLIC)
+                .addAnnotation(Override.class)
+                .addParameters(abstractMethod.parameters);
+    }
+
+    private static List<ParameterSpec> tagParameters(String metricName, MetricDefinition definition) {
+        return definition.getTagDefinitions().stream()
+                .filter(UtilityGenerator::tagDefinitionRequiresParam)
+                .map(tag -> ParameterSpec.builder(tagClassName(metricName, tag), Custodian.sanitizeName(tag.getName()))
+                        .addAnnotation(Safe.class)
+                        .build())
+                .collect(ImmutableList.toImmutableList());
+    }
+
     private static MethodSpec generateToString(MetricNamespace metricNamespace, ClassName className) {
         CodeBlock tagsBlock = metricNamespace.getTags().stream()
                 .map(tagDef -> {
@@ -473,42 +1159,40 @@ final class UtilityGenerator {
             Optional<String> libraryName,
             MetricNamespace metricNamespace,
             MetricDefinition definition,
-            ImplementationVisibility visibility) {
+            GeneratorOptions options) {
+        ImplementationVisibility visibility = options.visibility();
         boolean isGauge = MetricType.GAUGE.equals(definition.getType());
 
-        List<ParameterSpec> parameters = definition.getTagDefinitions().stream()
-                .filter(UtilityGenerator::tagDefinitionRequiresParam)
-                .map(tag -> ParameterSpec.builder(tagClassName(metricName, tag), Custodian.sanitizeName(tag.getName()))
-                        .addAnnotation(Safe.class)
-                        .build())
-                .collect(ImmutableList.toImmutableList());
+        List<ParameterSpec> parameters = tagParameters(metricName, definition);
+
+        CodeBlock metricNameBody = definition.getTagDefinitions().isEmpty()
+                        && !metricNamespace.getTags().isEmpty()
+                        && options.lazyInitialization()
+                ? lazyMetricName(namespace, metricName, libraryName, definition, metricNamespace, options)
+                : CodeBlock.of(
+                        "return $L;",
+                        definition.getTagDefinitions().isEmpty()
+                                ? metricNamespace.getTags().isEmpty()
+                                        ? constant(metricNameField(metricName), options)
+                                        : metricNameField(metricName)
+                                : metricName(namespace, metricName, libraryName, definition, metricNamespace, options));
 
         MethodSpec metricNameMethod = MethodSpec.methodBuilder(Custodian.sanitizeName(metricName + "MetricName"))
                 .addModifiers(visibility.apply())
                 .addModifiers(metricNamespace.getTags().isEmpty() ? List.of(Modifier.STATIC) : List.of())
                 .addParameters(parameters)
                 .returns(MetricName.class)
-                .addCode(
-                        "return $L;",
-                        definition.getTagDefinitions().isEmpty()
-                                ? metricNameField(metricName)
-                                : metricName(namespace, metricName, libraryName, definition, metricNamespace))
+                .addCode(metricNameBody)
                 .build();
 
-        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(Custodian.sanitizeName(metricName))
+        MethodSpec.Builder methodBuilder = MethodSpec.methodBuilder(metricMethod(metricName, options))
                 .addModifiers(visibility.apply())
                 .returns(MetricTypes.type(definition.getType()))
                 .addParameters(parameters)
                 .addJavadoc(Javadoc.render(definition.getDocs()));
 
-        CodeBlock metricNameMethodInvocation = CodeBlock.of(
-                "$N($L)",
-                metricNameMethod,
-                CodeBlock.join(
-                        parameters.stream()
-                                .map(parameter -> CodeBlock.of("$N", parameter))
-                                .collect(ImmutableList.toImmutableList()),
-                        ","));
+        CodeBlock metricNameMethodInvocation = CodeBlock.of("$N($L)", metricNameMethod, parameterNames(parameters));
+        MethodSpec template = methodBuilder.build();
         if (isGauge) {
             methodBuilder.addParameter(
                     ParameterizedTypeName.get(ClassName.get(Gauge.class), WildcardTypeName.subtypeOf(Number.class)),
@@ -521,6 +1205,11 @@ final class UtilityGenerator {
                     MetricTypes.registryAccessor(definition.getType()),
                     metricNameMethodInvocation,
                     ReservedNames.GAUGE_NAME);
+        } else if (definition.getHot().orElse(false)) {
+            methodBuilder.addAnnotation(CheckReturnValue.class);
+            methodBuilder.addJavadoc("\n<p>$L", HOT_JAVADOC);
+            methodBuilder.addCode(
+                    cachedMetric(outerBuilder, metricName, definition, parameters, metricNameMethodInvocation));
         } else {
             methodBuilder.addAnnotation(CheckReturnValue.class);
             methodBuilder.addStatement(
@@ -531,7 +1220,110 @@ final class UtilityGenerator {
         }
         MethodSpec method = methodBuilder.build();
 
-        outerBuilder.addMethod(method).addMethod(metricNameMethod);
+        outerBuilder.addMethod(method);
+        if (isGauge && options.primitiveGauges()) {
+            checkUpdateParameters(metricName, parameters, ImmutableList.of(PRIMITIVE_GAUGE_TARGET));
+            for (PrimitiveGauge primitiveGauge : PrimitiveGauge.values()) {
+                outerBuilder.addMethod(template.toBuilder()
+                        .addParameter(primitiveGauge.supplierType(), ReservedNames.GAUGE_NAME)
+                        .addStatement(
+                                "$L.$L($L, $L)",
+                                ReservedNames.REGISTRY_NAME,
+                                MetricTypes.registryAccessor(definition.getType()),
+                                metricNameMethodInvocation,
+                                primitiveGauge.fromSupplier(ReservedNames.GAUGE_NAME))
+                        .build());
+                outerBuilder.addMethod(MethodSpec.methodBuilder(primitiveGauge.weakMethod(template.name))
+                        .addModifiers(template.modifiers)
+                        .addJavadoc(template.javadoc)
+                        .addTypeVariable(primitiveGauge.targetType())
+                        .addParameters(template.parameters)
+                        .addParameter(primitiveGauge.targetType(), ReservedNames.TARGET_NAME)
+                        .addParameter(primitiveGauge.functionType(), ReservedNames.GAUGE_NAME)
+                        .addJavadoc("\n<p>$L", primitiveGauge.weakJavadoc())
+                        .addStatement(
+                                "$L.$L($L, $L)",
+                                ReservedNames.REGISTRY_NAME,
+                                MetricTypes.registryAccessor(definition.getType()),
+                                metricNameMethodInvocation,
+                                primitiveGauge.fromWeakTarget(ReservedNames.TARGET_NAME, ReservedNames.GAUGE_NAME))
+                        .build());
+            }
+        }
+        definition.getSampleRate().ifPresent(sampleRate -> {
+            List<ParameterSpec> updateParameters = sampledUpdateParameters(definition.getType());
+            checkUpdateParameters(metricName, parameters, updateParameters);
+            outerBuilder.addMethod(MethodSpec.methodBuilder(Custodian.sanitizeName("update." + metricName))
+                    .addModifiers(visibility.apply())
+                    .addParameters(parameters)
+                    .addParameters(updateParameters)
+                    .addJavadoc(Javadoc.render(definition.getDocs()))
+                    .addJavadoc("\n<p>$L", sampledUpdateJavadoc(sampleRate))
+                    .addCode(sampledUpdate(
+                            sampleRate,
+                            CodeBlock.of("$N($L)", method, parameterNames(parameters)),
+                            updateParameters))
+                    .build());
+        });
+        if (options.timingHelpers() && MetricType.TIMER.equals(definition.getType())) {
+            generateTimingHelpers(
+                    outerBuilder,
+                    metricName,
+                    definition,
+                    parameters,
+                    CodeBlock.of("$N($L)", method, parameterNames(parameters)),
+                    visibility);
+            outerBuilder.addMethod(asyncTimingHelper(metricName, definition, options));
+        }
+        outerBuilder.addMethod(metricNameMethod);
+        if (options.bind() && !isGauge && !parameters.isEmpty()) {
+            generateBind(
+                    outerBuilder,
+                    metricName,
+                    definition,
+                    parameters,
+                    CodeBlock.of("$N($L)", metricNameMethod, parameterNames(parameters)),
+                    visibility);
+        }
+    }
+
+    /**
+     * Caches the metric resolved from the registry in a field, or an array indexed by the enum tag, so that hot paths
+     * skip the registry lookup. Publication is racy but benign: the registry returns a single instance per name and
+     * counters and meters only have final fields. The cache is not checked against the registry, since the registry
+     * offers no lookup cheaper than the one being skipped, so metrics removed from the registry are orphaned.
+     */
+    private static CodeBlock cachedMetric(
+            TypeSpec.Builder outerBuilder,
+            String metricName,
+            MetricDefinition definition,
+            List<ParameterSpec> parameters,
+            CodeBlock metricNameMethodInvocation) {
+        TypeName type = MetricTypes.type(definition.getType());
+        String field = cachedMetricField(metricName);
+        CodeBlock slot;
+        if (parameters.isEmpty()) {
+            outerBuilder.addField(FieldSpec.builder(type, field, Modifier.PRIVATE).build());
+            slot = CodeBlock.of("$L", field);
+        } else {
+            ParameterSpec parameter = Iterables.getOnlyElement(parameters);
+            outerBuilder.addField(FieldSpec.builder(ArrayTypeName.of(type), field, Modifier.PRIVATE, Modifier.FINAL)
+                    .initializer("new $T[$T.values().length]", type, parameter.type)
+                    .build());
+            slot = CodeBlock.of("$L[$N.ordinal()]", field, parameter);
+        }
+        return CodeBlock.builder()
+                .addStatement("$T result = $L", type, slot)
+                .beginControlFlow("if (result == null)")
+                .addStatement(
+                        "result = $L.$L($L)",
+                        ReservedNames.REGISTRY_NAME,
+                        MetricTypes.registryAccessor(definition.getType()),
+                        metricNameMethodInvocation)
+                .addStatement("$L = result", slot)
+                .endControlFlow()
+                .addStatement("return result")
+                .build();
     }
 
     /** Produce a private staged builder, which implements public interfaces. */
@@ -542,8 +1334,10 @@ final class UtilityGenerator {
             Optional<String> libraryName,
             MetricDefinition definition,
             MetricNamespace metricNamespace,
-            ImplementationVisibility visibility) {
+            GeneratorOptions options) {
+        ImplementationVisibility visibility = options.visibility();
         boolean isGauge = MetricType.GAUGE.equals(definition.getType());
+        boolean primitiveGauges = isGauge && options.primitiveGauges();
 
         MethodSpec.Builder abstractBuildMethodBuilder = MethodSpec.methodBuilder("build")
                 .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
@@ -562,11 +1356,58 @@ final class UtilityGenerator {
                 .returns(MetricName.class)
                 .build();
 
-        outerBuilder.addType(TypeSpec.interfaceBuilder(buildStage(metricName))
+        TypeSpec.Builder buildStageBuilder = TypeSpec.interfaceBuilder(buildStage(metricName))
                 .addModifiers(visibility.apply())
-                .addMethod(abstractBuildMethod)
-                .addMethod(abstractBuildMetricName)
-                .build());
+                .addMethod(abstractBuildMethod);
+        if (primitiveGauges) {
+            for (PrimitiveGauge primitiveGauge : PrimitiveGauge.values()) {
+                buildStageBuilder
+                        .addMethod(MethodSpec.methodBuilder("build")
+                                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                                .addParameter(primitiveGauge.supplierType(), ReservedNames.GAUGE_NAME)
+                                .build())
+                        .addMethod(MethodSpec.methodBuilder(primitiveGauge.weakMethod("build"))
+                                .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                                .addTypeVariable(primitiveGauge.targetType())
+                                .addParameter(primitiveGauge.targetType(), ReservedNames.TARGET_NAME)
+                                .addParameter(primitiveGauge.functionType(), ReservedNames.GAUGE_NAME)
+                                .addJavadoc(primitiveGauge.weakJavadoc())
+                                .build());
+            }
+        }
+        List<ParameterSpec> updateParameters = sampledUpdateParameters(definition.getType());
+        definition
+                .getSampleRate()
+                .ifPresent(sampleRate -> buildStageBuilder.addMethod(MethodSpec.methodBuilder("update")
+                        .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                        .addParameters(updateParameters)
+                        .addJavadoc(sampledUpdateJavadoc(sampleRate))
+                        .build()));
+        boolean timingHelpers = options.timingHelpers() && MetricType.TIMER.equals(definition.getType());
+        // An outcome tag is chosen by a stage before the build stage, so it is only inferred by the outer helper.
+        boolean stagedTimeAsync = timingHelpers && outcomeTag(definition).isEmpty();
+        if (timingHelpers) {
+            checkUpdateParameters(metricName, tagParameters(metricName, definition), TIMING_NAMES);
+            MethodSpec.Builder time = timeMethod("time")
+                    .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                    .addJavadoc(TIME_JAVADOC);
+            MethodSpec.Builder recordNanos = recordNanosMethod("recordNanos")
+                    .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                    .addJavadoc(RECORD_NANOS_JAVADOC);
+            MethodSpec.Builder timeAsync = timeAsyncMethod("timeAsync")
+                    .addModifiers(Modifier.PUBLIC, Modifier.ABSTRACT)
+                    .addJavadoc(TIME_ASYNC_JAVADOC);
+            definition.getSampleRate().ifPresent(rate -> {
+                time.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate));
+                recordNanos.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate));
+                timeAsync.addJavadoc("\n<p>$L", sampledUpdateJavadoc(rate));
+            });
+            buildStageBuilder.addMethod(time.build()).addMethod(recordNanos.build());
+            if (stagedTimeAsync) {
+                buildStageBuilder.addMethod(timeAsync.build());
+            }
+        }
+        outerBuilder.addType(buildStageBuilder.addMethod(abstractBuildMetricName).build());
         ImmutableList<TagDefinition> tagList = definition.getTagDefinitions().stream()
                 .filter(UtilityGenerator::tagDefinitionRequiresParam)
                 .collect(ImmutableList.toImmutableList());
@@ -600,7 +1441,8 @@ final class UtilityGenerator {
                 .addAnnotation(Override.class)
                 .returns(MetricName.class)
                 .addStatement(
-                        "return $L", metricName(namespaceName, metricName, libraryName, definition, metricNamespace))
+                        "return $L",
+                        metricName(namespaceName, metricName, libraryName, definition, metricNamespace, options))
                 .build();
 
         MethodSpec.Builder buildMethodBuilder = MethodSpec.methodBuilder("build")
@@ -629,6 +1471,66 @@ final class UtilityGenerator {
                     buildMetricName);
         }
         MethodSpec buildMethod = buildMethodBuilder.build();
+        List<MethodSpec> sampledUpdateMethods = new ArrayList<>();
+        definition
+                .getSampleRate()
+                .ifPresent(sampleRate -> sampledUpdateMethods.add(MethodSpec.methodBuilder("update")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .addParameters(updateParameters)
+                        .addCode(sampledUpdate(sampleRate, CodeBlock.of("$N()", buildMethod), updateParameters))
+                        .build()));
+        List<MethodSpec> timingMethods = new ArrayList<>();
+        if (timingHelpers) {
+            double sampleRate = definition.getSampleRate().orElse(1);
+            CodeBlock metric = CodeBlock.of("$N()", buildMethod);
+            timingMethods.add(timeMethod("time")
+                    .addModifiers(Modifier.PUBLIC)
+                    .addAnnotation(Override.class)
+                    .addCode(timeBody(sampleRate, metric))
+                    .build());
+            timingMethods.add(recordNanosMethod("recordNanos")
+                    .addModifiers(Modifier.PUBLIC)
+                    .addAnnotation(Override.class)
+                    .addCode(recordNanosBody(sampleRate, metric))
+                    .build());
+            if (stagedTimeAsync) {
+                timingMethods.add(timeAsyncMethod("timeAsync")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .addCode(timeAsyncBody(sampleRate, metric, "_" + ReservedNames.THROWABLE_NAME))
+                        .build());
+            }
+        }
+        List<MethodSpec> primitiveGaugeBuildMethods = new ArrayList<>();
+        if (primitiveGauges) {
+            for (PrimitiveGauge primitiveGauge : PrimitiveGauge.values()) {
+                primitiveGaugeBuildMethods.add(MethodSpec.methodBuilder("build")
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .addParameter(primitiveGauge.supplierType(), ReservedNames.GAUGE_NAME)
+                        .addStatement(
+                                "$L.$L($N(), $L)",
+                                ReservedNames.REGISTRY_NAME,
+                                MetricTypes.registryAccessor(definition.getType()),
+                                buildMetricName,
+                                primitiveGauge.fromSupplier(ReservedNames.GAUGE_NAME))
+                        .build());
+                primitiveGaugeBuildMethods.add(MethodSpec.methodBuilder(primitiveGauge.weakMethod("build"))
+                        .addModifiers(Modifier.PUBLIC)
+                        .addAnnotation(Override.class)
+                        .addTypeVariable(primitiveGauge.targetType())
+                        .addParameter(primitiveGauge.targetType(), ReservedNames.TARGET_NAME)
+                        .addParameter(primitiveGauge.functionType(), ReservedNames.GAUGE_NAME)
+                        .addStatement(
+                                "$L.$L($N(), $L)",
+                                ReservedNames.REGISTRY_NAME,
+                                MetricTypes.registryAccessor(definition.getType()),
+                                buildMetricName,
+                                primitiveGauge.fromWeakTarget(ReservedNames.TARGET_NAME, ReservedNames.GAUGE_NAME))
+                        .build());
+            }
+        }
 
         outerBuilder.addType(TypeSpec.classBuilder(Custodian.anyToUpperCamel(metricName) + "Builder")
                 .addModifiers(Modifier.PRIVATE, Modifier.FINAL)
@@ -666,9 +1568,12 @@ final class UtilityGenerator {
                                 .build())
                         .collect(ImmutableList.toImmutableList()))
                 .addMethod(buildMethod)
+                .addMethods(sampledUpdateMethods)
+                .addMethods(timingMethods)
+                .addMethods(primitiveGaugeBuildMethods)
                 .addMethod(buildMetricName)
                 .build());
-        outerBuilder.addMethod(MethodSpec.methodBuilder(Custodian.sanitizeName(metricName))
+        outerBuilder.addMethod(MethodSpec.methodBuilder(metricMethod(metricName, options))
                 .addModifiers(visibility.apply())
                 .returns(
                         ClassName.bestGuess(stageName(metricName, tagList.get(0).getName())))
@@ -676,6 +1581,31 @@ final class UtilityGenerator {
                 .addStatement("return new $T()", ClassName.bestGuess(Custodian.anyToUpperCamel(metricName) + "Builder"))
                 .addJavadoc(Javadoc.render(definition.getDocs()))
                 .build());
+        if (timingHelpers && !stagedTimeAsync) {
+            outerBuilder.addMethod(asyncTimingHelper(metricName, definition, options));
+        }
+        if (options.bind() && !isGauge) {
+            generateBind(
+                    outerBuilder,
+                    metricName,
+                    definition,
+                    tagParameters(metricName, definition),
+                    CodeBlock.of(
+                            "$L()$L.buildMetricName()",
+                            metricMethod(metricName, options),
+                            tagList.stream()
+                                    .map(tag -> CodeBlock.of(".$1L($1L)", Custodian.sanitizeName(tag.getName())))
+                                    .collect(CodeBlock.joining(""))),
+                    visibility);
+        }
+    }
+
+    /**
+     * Metrics with more than one argument use a staged builder, unless stages are collapsed into a single factory
+     * method to reduce the number of generated classes.
+     */
+    private static boolean stagedBuilder(MetricDefinition definition, GeneratorOptions options) {
+        return numArgs(definition) > 1 && !options.collapseStages();
     }
 
     private static long numArgs(MetricDefinition definition) {
@@ -693,6 +1623,8 @@ final class UtilityGenerator {
     private static ClassName tagClassName(String metricName, TagDefinition tag) {
         if (tag.getValues().isEmpty()) {
             return ClassName.get(String.class);
+        } else if (tag.getValueSet().isPresent()) {
+            return ClassName.bestGuess(tag.getValueSet().get());
         }
         return ClassName.bestGuess(
                 Custodian.anyToUpperCamel(metricName) + "_" + Custodian.anyToUpperCamel(tag.getName()));
@@ -702,6 +1634,15 @@ final class UtilityGenerator {
         return Custodian.sanitizeName(tagName + "Value");
     }
 
+    private static String cachedMetricField(String metricName) {
+        return Custodian.sanitizeName(metricName + "Metric");
+    }
+
+    /** Name of the accessor of a metric, which must not conflict with methods generated by enabled options. */
+    private static String metricMethod(String metricName, GeneratorOptions options) {
+        return Custodian.sanitizeName(metricName, ReservedNames.optionalMethods(options));
+    }
+
     private static String metricNameField(String metricName) {
         return Custodian.sanitizeName(metricName + "MetricName");
     }
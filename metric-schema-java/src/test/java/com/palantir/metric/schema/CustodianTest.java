@@ -18,6 +18,7 @@ package com.palantir.metric.schema;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.collect.ImmutableSet;
 import org.junit.jupiter.api.Test;
 
 class CustodianTest {
@@ -57,6 +58,13 @@ class CustodianTest {
         assertThat(Custodian.sanitizeName("for")).isEqualTo("for_");
     }
 
+    @Test
+    void testSanitize_optionalMethod() {
+        assertThat(Custodian.sanitizeName("register.all")).isEqualTo("registerAll");
+        assertThat(Custodian.sanitizeName("register.all", ImmutableSet.of("registerAll"))).isEqualTo("registerAll_");
+        assertThat(Custodian.sanitizeName("noop.recorder")).isEqualTo("noopRecorder");
+    }
+
     @Test
     void testSanitize_leadingNumeric() {
         assertThat(Custodian.sanitizeName("4xx")).isEqualTo("_4xx");
@@ -0,0 +1,210 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Metric;
+import com.google.common.collect.ImmutableList;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.test.BindMetrics;
+import com.palantir.test.HotMetrics;
+import com.palantir.test.LazyMetrics;
+import com.palantir.test.LazyTenantMetrics;
+import com.palantir.test.PrimitiveMetrics;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.MetricName;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Races generated utilities from many threads, checking that no registration or update is lost and that lazily
+ * initialized state is never observed partially constructed.
+ */
+public class GeneratedConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    public void testConcurrentConstruction() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        List<MetricName> names = race(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                LazyTenantMetrics.builder()
+                        .registry(registry)
+                        .tenant("tenant")
+                        .build()
+                        .requests()
+                        .mark();
+            }
+            return LazyMetrics.requestsMetricName();
+        });
+        assertThat(names).allSatisfy(name -> assertThat(name).isSameAs(names.get(0)));
+        assertThat(registry.getMetrics()).hasSize(1);
+        assertThat(LazyTenantMetrics.builder()
+                        .registry(registry)
+                        .tenant("tenant")
+                        .build()
+                        .requests()
+                        .getCount())
+                .isEqualTo(THREADS * ITERATIONS);
+    }
+
+    @Test
+    public void testConcurrentStagedBuilders() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        BindMetrics metrics = BindMetrics.of(registry);
+        race(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                metrics.processing()
+                        .result(result(i))
+                        .otherLocator(locator(thread))
+                        .build()
+                        .update(1, TimeUnit.MILLISECONDS);
+            }
+            return null;
+        });
+        assertThat(registry.getMetrics()).hasSize(2 * 4);
+        for (BindMetrics.Processing_Result result : BindMetrics.Processing_Result.values()) {
+            long count = IntStream.range(0, 4)
+                    .mapToLong(thread -> metrics.bindProcessing(result, locator(thread))
+                            .metric()
+                            .getCount())
+                    .sum();
+            assertThat(count).isEqualTo(THREADS * ITERATIONS / 2);
+        }
+    }
+
+    @Test
+    public void testConcurrentGaugeRegistration() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        PrimitiveMetrics metrics = PrimitiveMetrics.of(registry);
+        race(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                LongSupplier value = () -> thread;
+                metrics.queueSize(value);
+                metrics.utilization().pool(locator(thread)).build(value);
+            }
+            return null;
+        });
+        Map<MetricName, Metric> metricsByName = registry.getMetrics();
+        assertThat(metricsByName).hasSize(1 + 4);
+        assertThat(gaugeValue(metricsByName.get(PrimitiveMetrics.queueSizeMetricName())))
+                .isBetween(0L, THREADS - 1L);
+        for (int pool = 0; pool < 4; pool++) {
+            MetricName name = metrics.utilization().pool(locator(pool)).buildMetricName();
+            // The surviving gauge must be one registered by a thread using this pool.
+            assertThat(gaugeValue(metricsByName.get(name)) % 4).isEqualTo(pool);
+        }
+    }
+
+    @Test
+    public void testConcurrentHotMetricCaches() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        HotMetrics metrics = HotMetrics.of(registry);
+        List<Counter> counters = race(thread -> {
+            HotMetrics.Failures_Cause cause = HotMetrics.Failures_Cause.values()[thread % 2];
+            for (int i = 0; i < ITERATIONS; i++) {
+                metrics.requests().mark();
+                metrics.failures(cause).inc();
+            }
+            return metrics.failures(cause);
+        });
+        for (HotMetrics.Failures_Cause cause : HotMetrics.Failures_Cause.values()) {
+            Counter registered = registry.counter(HotMetrics.failuresMetricName(cause));
+            assertThat(counters.get(cause.ordinal())).isSameAs(registered);
+            assertThat(registered.getCount()).isEqualTo(THREADS * ITERATIONS / 2);
+        }
+        assertThat(metrics.requests().getCount()).isEqualTo(THREADS * ITERATIONS);
+    }
+
+    @Test
+    public void testConcurrentLazyMetricNames() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        LazyTenantMetrics metrics =
+                LazyTenantMetrics.builder().registry(registry).tenant("tenant").build();
+        List<MetricName> names = race(thread -> {
+            for (int i = 0; i < ITERATIONS; i++) {
+                metrics.latency().update(1, TimeUnit.MILLISECONDS);
+            }
+            return metrics.latencyMetricName();
+        });
+        assertThat(names).allSatisfy(name -> {
+            assertThat(name).isEqualTo(names.get(0));
+            assertThat(name.safeTags()).containsEntry("tenant", "tenant");
+        });
+        assertThat(registry.getMetrics()).hasSize(1);
+        assertThat(metrics.latency().getCount()).isEqualTo(THREADS * ITERATIONS);
+    }
+
+    private static long gaugeValue(Metric metric) {
+        assertThat(metric).isInstanceOf(Gauge.class);
+        return ((Number) ((Gauge<?>) metric).getValue()).longValue();
+    }
+
+    private static BindMetrics.Processing_Result result(int iteration) {
+        return BindMetrics.Processing_Result.values()[iteration % 2];
+    }
+
+    private static String locator(int thread) {
+        return "locator-" + (thread % 4);
+    }
+
+    /** Runs the task on each thread at once, released together to maximize contention, and collects results. */
+    private static <T> List<T> race(IntFunction<T> task) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = IntStream.range(0, THREADS)
+                    .mapToObj(thread -> executor.submit(() -> {
+                        start.await();
+                        return task.apply(thread);
+                    }))
+                    .collect(Collectors.toList());
+            start.countDown();
+            ImmutableList.Builder<T> results = ImmutableList.builder();
+            for (Future<T> future : futures) {
+                T result = future.get(1, TimeUnit.MINUTES);
+                if (result != null) {
+                    results.add(result);
+                }
+            }
+            return results.build();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SafeRuntimeException("Interrupted", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new SafeRuntimeException("Task failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
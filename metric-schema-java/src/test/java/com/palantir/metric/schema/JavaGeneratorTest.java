@@ -17,7 +17,11 @@
 package com.palantir.metric.schema;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
+import com.codahale.metrics.Gauge;
+import com.codahale.metrics.Meter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
@@ -25,18 +29,43 @@ import com.google.common.collect.Iterables;
 import com.palantir.conjure.java.serialization.ObjectMappers;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.metric.schema.lang.MetricSchemaCompiler;
+import com.palantir.test.BindMetrics;
+import com.palantir.test.HotMetrics;
 import com.palantir.test.MonitorsMetrics;
+import com.palantir.test.Outcome;
+import com.palantir.test.PrimitiveMetrics;
+import com.palantir.test.RecorderMetrics;
+import com.palantir.test.RegistrationMetrics;
+import com.palantir.test.SamplingMetrics;
+import com.palantir.test.SharedTagsMetrics;
+import com.palantir.test.TagEntriesMetrics;
+import com.palantir.test.TimingMetrics;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
 import com.palantir.tritium.metrics.registry.MetricName;
 import java.io.IOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
 import java.util.stream.Stream;
+import org.assertj.core.data.Percentage;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
 import org.junit.jupiter.api.io.TempDir;
 
 public class JavaGeneratorTest {
@@ -82,6 +111,71 @@ public class JavaGeneratorTest {
                         assertThatFilesAreTheSame(outputDir.resolve(relativePath), REFERENCE_FILES_FOLDER));
     }
 
+    @Test
+    void generatedUtilitySizes() throws IOException {
+        List<GeneratedUtility> utilities = JavaGenerator.generateUtilities(JavaGeneratorArgs.builder()
+                .output(outputDir)
+                .input(compileAndEmit(ImmutableList.of(Paths.get("src/test/resources/collapse-stages.yml"))))
+                .defaultPackageName("com.palantir.test")
+                .libraryName("witchcraft")
+                .build());
+        GeneratedUtility collapsed = Iterables.getOnlyElement(utilities);
+        assertThat(collapsed.className()).isEqualTo("com.palantir.test.CollapsedMetrics");
+        // The utility class and the Latency_Method enum, without stage interfaces or builder classes.
+        assertThat(collapsed.classCount()).isEqualTo(2);
+        // Seven methods on the utility class, with a constructor and getter on the enum.
+        assertThat(collapsed.methodCount()).isEqualTo(9);
+        assertThat(collapsed.sourceBytes()).isEqualTo(Files.size(collapsed.path()));
+        assertThat(collapsed.tagValueSet()).isFalse();
+    }
+
+    @Test
+    void generatedUtilitiesLabelTagValueSets() throws IOException {
+        List<GeneratedUtility> utilities = JavaGenerator.generateUtilities(JavaGeneratorArgs.builder()
+                .output(outputDir)
+                .input(compileAndEmit(ImmutableList.of(Paths.get("src/test/resources/tag-value-sets.yml"))))
+                .defaultPackageName("com.palantir.test")
+                .libraryName("witchcraft")
+                .build());
+        assertThat(utilities)
+                .extracting(GeneratedUtility::className, GeneratedUtility::tagValueSet)
+                .containsExactlyInAnyOrder(
+                        tuple("com.palantir.test.Outcome", true), tuple("com.palantir.test.SharedTagsMetrics", false));
+    }
+
+    @Test
+    void rejectsTagValueSetsNamedLikeGeneratedTypes() {
+        Set<TagValue> values = ImmutableSet.of(
+                TagValue.builder().value("success").build(),
+                TagValue.builder().value("failure").build());
+        MetricNamespace namespace = MetricNamespace.builder()
+                .docs(Documentation.of("Server metrics."))
+                .tagValueSets("Recorder", values)
+                .build();
+        assertThatThrownBy(() -> JavaGenerator.generateJavaFiles(
+                        MetricSchema.builder()
+                                .options("javaRecorder", "true")
+                                .namespaces("server", namespace)
+                                .build(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        "com.palantir.test"))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Namespace tagValueSets names collide with generated type names")
+                .hasMessageContaining("Recorder");
+        assertThatThrownBy(() -> JavaGenerator.generateJavaFiles(
+                        MetricSchema.builder()
+                                .namespaces("server", namespace)
+                                .tagValueSets("ServerMetrics", values)
+                                .build(),
+                        Optional.empty(),
+                        Optional.empty(),
+                        "com.palantir.test"))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Schema tagValueSets names collide with generated type names")
+                .hasMessageContaining("ServerMetrics");
+    }
+
     @Test
     public void testJavaVersionTag() {
         DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
@@ -90,6 +184,299 @@ public class JavaGeneratorTest {
         assertThat(key.safeTags().get("javaVersion")).matches("\\d+\\.\\d+(\\.\\d+)+");
     }
 
+    @Test
+    public void testPrimitiveGauges() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        PrimitiveMetrics metrics = PrimitiveMetrics.of(registry);
+        AtomicLong queued = new AtomicLong(1000);
+        LongSupplier queueSize = queued::get;
+        metrics.queueSize(queueSize);
+        Gauge<?> longGauge = gauge(registry, PrimitiveMetrics.queueSizeMetricName());
+        Object first = longGauge.getValue();
+        assertThat(first).isEqualTo(1000L);
+        // 1000 is outside the Long.valueOf cache, so the same instance means the previous box was reused.
+        assertThat(longGauge.getValue()).isSameAs(first);
+        queued.set(1001);
+        assertThat(longGauge.getValue()).isEqualTo(1001L);
+
+        DoubleSupplier ratio = () -> 0.5;
+        metrics.queueSize(ratio);
+        Gauge<?> doubleGauge = gauge(registry, PrimitiveMetrics.queueSizeMetricName());
+        assertThat(doubleGauge.getValue()).isEqualTo(0.5).isSameAs(doubleGauge.getValue());
+    }
+
+    @Test
+    public void testWeakPrimitiveGaugesAcceptInlineLambdas() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        PrimitiveMetrics metrics = PrimitiveMetrics.of(registry);
+        AtomicLong queued = new AtomicLong(4);
+        // Implicitly typed lambdas would be ambiguous between overloads taking ToLongFunction and ToDoubleFunction.
+        metrics.queueSizeLong(queued, q -> q.get() * 2);
+        assertThat(gauge(registry, PrimitiveMetrics.queueSizeMetricName()).getValue())
+                .isEqualTo(8L);
+        metrics.queueSizeDouble(queued, q -> q.get() / 8.0);
+        assertThat(gauge(registry, PrimitiveMetrics.queueSizeMetricName()).getValue())
+                .isEqualTo(0.5);
+        metrics.utilization().pool("queued").buildDouble(queued, q -> q.get() / 2.0);
+        assertThat(gauge(registry, metrics.utilization().pool("queued").buildMetricName()).getValue())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @Timeout(value = 1, unit = TimeUnit.MINUTES)
+    public void testWeakPrimitiveGauges() throws InterruptedException {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        PrimitiveMetrics metrics = PrimitiveMetrics.of(registry);
+        AtomicLong live = new AtomicLong(3);
+        metrics.utilization().pool("live").buildLong(live, pool -> pool.get() * 2);
+        ReferenceQueue<AtomicLong> collected = new ReferenceQueue<>();
+        WeakReference<AtomicLong> probe = registerCollectable(metrics, collected);
+        Gauge<?> liveGauge = gauge(registry, metrics.utilization().pool("live").buildMetricName());
+        Gauge<?> collectedGauge = gauge(registry, metrics.utilization().pool("collected").buildMetricName());
+        // Weak references to an object are cleared together, so once the probe is enqueued the gauge has lost its
+        // target as well. Waiting on the queue, rather than for a fixed number of collections, cannot race the GC.
+        while (collected.remove(100) != probe) {
+            System.gc();
+        }
+        assertThat(collectedGauge.getValue()).isEqualTo(0L);
+        assertThat(liveGauge.getValue()).isEqualTo(live.get() * 2);
+    }
+
+    /** Registers a gauge reading a target which nothing else references, returning a probe enqueued once collected. */
+    private static WeakReference<AtomicLong> registerCollectable(
+            PrimitiveMetrics metrics, ReferenceQueue<AtomicLong> collected) {
+        AtomicLong target = new AtomicLong(5);
+        metrics.utilization().pool("collected").buildLong(target, pool -> pool.get() * 2);
+        return new WeakReference<>(target, collected);
+    }
+
+    @Test
+    public void testSampledCountsScaleWithRate() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        SamplingMetrics metrics = SamplingMetrics.of(registry);
+        int updates = 100_000;
+        for (int i = 0; i < updates; i++) {
+            metrics.updateLatency(1, TimeUnit.MILLISECONDS);
+        }
+        MetricName metricName = SamplingMetrics.latencyMetricName();
+        double sampleRate = Double.parseDouble(metricName.safeTags().get("sampleRate"));
+        assertThat(sampleRate).isEqualTo(0.1);
+        // About 10,000 updates are recorded with a standard deviation below 100, so dividing by the rate from the tag
+        // recovers the number of updates well within 5%.
+        assertThat(registry.timer(metricName).getCount() / sampleRate)
+                .isCloseTo(updates, Percentage.withPercentage(5));
+    }
+
+    @Test
+    public void testRegisterAll() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        RegistrationMetrics metrics = RegistrationMetrics.of(registry);
+        metrics.registerAll();
+        // One meter, three counters and four timers, gauges and free-form tags are skipped.
+        assertThat(registry.getMetrics()).hasSize(8);
+        assertThat(registry.getMetrics().keySet())
+                .extracting(MetricName::safeName)
+                .containsOnly(
+                        "registration.requests",
+                        "registration.failures",
+                        "registration.latency",
+                        "registration.register.all");
+        // The accessor of a metric named like the generated method is escaped.
+        assertThat(metrics.registerAll_()).isSameAs(registry.counter(RegistrationMetrics.registerAllMetricName()));
+    }
+
+    @Test
+    public void testHotMetricsAreCached() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        HotMetrics metrics = HotMetrics.of(registry);
+        assertThat(metrics.requests())
+                .isSameAs(metrics.requests())
+                .isSameAs(registry.meter(HotMetrics.requestsMetricName()));
+        assertThat(metrics.failures(HotMetrics.Failures_Cause.ERROR))
+                .isSameAs(metrics.failures(HotMetrics.Failures_Cause.ERROR))
+                .isNotSameAs(metrics.failures(HotMetrics.Failures_Cause.TIMEOUT));
+    }
+
+    @Test
+    public void testHotMetricsOutliveRemoval() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        HotMetrics metrics = HotMetrics.of(registry);
+        Meter cached = metrics.requests();
+        assertThat(registry.remove(HotMetrics.requestsMetricName())).hasValue(cached);
+
+        // As documented, the cache is not invalidated and updates go to the instance the registry no longer reports.
+        metrics.requests().mark();
+        assertThat(metrics.requests()).isSameAs(cached);
+        assertThat(cached.getCount()).isOne();
+        assertThat(registry.getMetrics()).doesNotContainKey(HotMetrics.requestsMetricName());
+    }
+
+    @Test
+    public void testBoundHandles() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        BindMetrics metrics = BindMetrics.of(registry);
+        BindMetrics.FailuresHandle failures = metrics.bindFailures(BindMetrics.Failures_Cause.ERROR);
+        failures.inc(2);
+        assertThat(failures.metric()).isSameAs(metrics.failures(BindMetrics.Failures_Cause.ERROR));
+        assertThat(failures.metricName()).isEqualTo(BindMetrics.failuresMetricName(BindMetrics.Failures_Cause.ERROR));
+        assertThat(failures.metric().getCount()).isEqualTo(2);
+
+        BindMetrics.ProcessingHandle processing =
+                metrics.bindProcessing(BindMetrics.Processing_Result.SUCCESS, "locator");
+        processing.update(5, TimeUnit.MILLISECONDS);
+        assertThat(processing.metric())
+                .isSameAs(metrics.processing()
+                        .result(BindMetrics.Processing_Result.SUCCESS)
+                        .otherLocator("locator")
+                        .build());
+        assertThat(processing.metric().getCount()).isOne();
+    }
+
+    @Test
+    public void testTagValueSets() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        SharedTagsMetrics metrics = SharedTagsMetrics.of(registry);
+        metrics.requests()
+                .method(SharedTagsMetrics.Method.PUT)
+                .result(Outcome.FAILURE)
+                .build()
+                .mark();
+        metrics.failures(SharedTagsMetrics.Method.PUT).inc();
+        assertThat(registry.getMetrics().keySet())
+                .extracting(name -> name.safeTags().get("method"))
+                .containsOnly("put");
+        assertThat(metrics.requests()
+                        .method(SharedTagsMetrics.Method.PUT)
+                        .result(Outcome.FAILURE)
+                        .buildMetricName()
+                        .safeTags())
+                .containsEntry("result", "failure");
+    }
+
+    @Test
+    public void testTagEntries() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        TagEntriesMetrics metrics = TagEntriesMetrics.of(registry);
+        metrics.failures(TagEntriesMetrics.Failures_Cause.TIMEOUT).inc();
+        assertThat(TagEntriesMetrics.failuresMetricName(TagEntriesMetrics.Failures_Cause.TIMEOUT)
+                        .safeTags())
+                .containsEntry("cause", "timeout")
+                .containsEntry("libraryName", "witchcraft")
+                .containsKeys("libraryVersion", "javaVersion");
+        assertThat(metrics.retries()
+                        .cause(TagEntriesMetrics.Retries_Cause.ERROR)
+                        .attempt(TagEntriesMetrics.Retries_Attempt.LAST)
+                        .buildMetricName()
+                        .safeTags())
+                .containsEntry("cause", "error")
+                .containsEntry("attempt", "last")
+                .containsEntry("region", "local")
+                .containsEntry("libraryName", "witchcraft");
+        assertThat(metrics.requests()
+                        .method(TagEntriesMetrics.Requests_Method.GET)
+                        .endpoint("/status")
+                        .buildMetricName()
+                        .safeTags())
+                .containsEntry("method", "get")
+                .containsEntry("endpoint", "/status");
+        assertThat(registry.counter(TagEntriesMetrics.failuresMetricName(TagEntriesMetrics.Failures_Cause.TIMEOUT))
+                        .getCount())
+                .isOne();
+    }
+
+    @Test
+    public void testTimingHelpers() throws InterruptedException {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        TimingMetrics metrics = TimingMetrics.of(registry);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 1000; i++) {
+                executor.execute(() -> {
+                    assertThat(metrics.timeLatency(() -> "value")).isEqualTo("value");
+                    metrics.handlerTime()
+                            .handler("handler")
+                            .result(TimingMetrics.HandlerTime_Result.SUCCESS)
+                            .recordNanos(1_000);
+                });
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertThat(executor.awaitTermination(1, TimeUnit.MINUTES)).isTrue();
+        assertThat(metrics.latency().getCount()).isEqualTo(1000);
+        assertThat(metrics.handlerTime()
+                        .handler("handler")
+                        .result(TimingMetrics.HandlerTime_Result.SUCCESS)
+                        .build()
+                        .getCount())
+                .isEqualTo(1000);
+    }
+
+    @Test
+    public void testAsyncTimingHelpers() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        TimingMetrics metrics = TimingMetrics.of(registry);
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        CompletionStage<String> timed = metrics.timeLatencyAsync(() -> pending);
+        assertThat(metrics.latency().getCount()).isZero();
+        pending.complete("value");
+        assertThat(timed.toCompletableFuture().join()).isEqualTo("value");
+        assertThat(metrics.latency().getCount()).isOne();
+
+        assertThat(metrics.timeHandlerTimeAsync("handler", () -> CompletableFuture.completedFuture("value")))
+                .isCompleted();
+        for (int i = 0; i < 2; i++) {
+            assertThat(metrics.timeHandlerTimeAsync(
+                            "handler", () -> CompletableFuture.failedFuture(new RuntimeException())))
+                    .isCompletedExceptionally();
+        }
+        assertThat(handlerTimeCount(metrics, TimingMetrics.HandlerTime_Result.SUCCESS)).isOne();
+        assertThat(handlerTimeCount(metrics, TimingMetrics.HandlerTime_Result.FAILURE)).isEqualTo(2);
+
+        CompletableFuture<String> queued = new CompletableFuture<>();
+        CompletionStage<String> waited = metrics.queueWait().queue("queue").priority("high").timeAsync(() -> queued);
+        assertThat(metrics.queueWait().queue("queue").priority("high").build().getCount()).isZero();
+        queued.completeExceptionally(new RuntimeException());
+        assertThat(waited).isCompletedExceptionally();
+        assertThat(metrics.queueWait().queue("queue").priority("high").build().getCount()).isOne();
+    }
+
+    private static Gauge<?> gauge(DefaultTaggedMetricRegistry registry, MetricName metricName) {
+        assertThat(registry.getMetrics().get(metricName)).isInstanceOf(Gauge.class);
+        return (Gauge<?>) registry.getMetrics().get(metricName);
+    }
+
+    private static long handlerTimeCount(TimingMetrics metrics, TimingMetrics.HandlerTime_Result result) {
+        return metrics.handlerTime().handler("handler").result(result).build().getCount();
+    }
+
+    @Test
+    public void testRecorder() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        RecorderMetrics metrics = RecorderMetrics.of(registry);
+        RecorderMetrics.noopRecorder().markRequests();
+        RecorderMetrics.noopRecorder().incFailures(RecorderMetrics.Failures_Cause.ERROR, 1);
+        assertThat(registry.getMetrics()).isEmpty();
+
+        RecorderMetrics.Recorder recorder = metrics.recorder();
+        recorder.markRequests();
+        recorder.incFailures(RecorderMetrics.Failures_Cause.ERROR, 2);
+        recorder.updateLatency(RecorderMetrics.Latency_Method.GET, "/api", 5, TimeUnit.MILLISECONDS);
+        assertThat(metrics.requests().getCount()).isOne();
+        assertThat(metrics.failures(RecorderMetrics.Failures_Cause.ERROR).getCount()).isEqualTo(2);
+        assertThat(metrics.latency()
+                        .method(RecorderMetrics.Latency_Method.GET)
+                        .endpoint("/api")
+                        .build()
+                        .getCount())
+                .isOne();
+        // Accessors of metrics named like the recorder methods are escaped.
+        recorder.incRecorder(3);
+        recorder.incNoopRecorder(4);
+        assertThat(metrics.recorder_().getCount()).isEqualTo(3);
+        assertThat(metrics.noopRecorder_().getCount()).isEqualTo(4);
+    }
+
     private void assertThatFilesAreTheSame(Path outputFile, String referenceFilesFolder) {
         Path relativized = outputDir.relativize(outputFile);
         Path expectedFile = Paths.get(referenceFilesFolder, relativized.toString());
@@ -0,0 +1,366 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.palantir.metric.schema.Documentation;
+import com.palantir.metric.schema.MetricDefinition;
+import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.MetricType;
+import com.palantir.metric.schema.TagDefinition;
+import com.palantir.metric.schema.TagValue;
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Parses the metric schema language straight into conjure objects from a stream of tokens, without an intermediate
+ * model. Tags and tag values may be given in their shorthand form, as a plain string, and unknown fields are rejected.
+ * Every string is interned, as the {@link StringInterningModule} does when reading manifests.
+ */
+final class LangParser {
+
+    static MetricSchema parse(JsonParser parser) throws IOException {
+        parser.nextToken();
+        expect(parser, JsonToken.START_OBJECT);
+        MetricSchema.Builder builder = MetricSchema.builder();
+        while (nextField(parser)) {
+            switch (parser.currentName()) {
+                case "namespaces":
+                    if (startObject(parser)) {
+                        while (nextField(parser)) {
+                            builder.namespaces(key(parser), parseNamespace(parser));
+                        }
+                    }
+                    break;
+                case "options":
+                    if (startObject(parser)) {
+                        while (nextField(parser)) {
+                            builder.options(key(parser), requireText(parser, "options"));
+                        }
+                    }
+                    break;
+                case "tagValueSets":
+                    parseTagValueSets(parser, builder::tagValueSets);
+                    break;
+                default:
+                    throw unknownField(parser);
+            }
+        }
+        return resolveTagValueSets(builder.build());
+    }
+
+    private static MetricNamespace parseNamespace(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        MetricNamespace.Builder builder = MetricNamespace.builder();
+        boolean documented = false;
+        while (nextField(parser)) {
+            switch (parser.currentName()) {
+                case "shortName":
+                    builder.shortName(Optional.ofNullable(text(parser)));
+                    break;
+                case "docs":
+                    builder.docs(Documentation.of(requireText(parser, "docs")));
+                    documented = true;
+                    break;
+                case "tags":
+                    if (startArray(parser)) {
+                        while (nextElement(parser)) {
+                            builder.tags(parseTag(parser));
+                        }
+                    }
+                    break;
+                case "tagValueSets":
+                    parseTagValueSets(parser, builder::tagValueSets);
+                    break;
+                case "metrics":
+                    if (startObject(parser)) {
+                        while (nextField(parser)) {
+                            builder.metrics(key(parser), parseMetric(parser));
+                        }
+                    }
+                    break;
+                default:
+                    throw unknownField(parser);
+            }
+        }
+        require(parser, documented, "docs");
+        return builder.build();
+    }
+
+    private static MetricDefinition parseMetric(JsonParser parser) throws IOException {
+        expect(parser, JsonToken.START_OBJECT);
+        MetricDefinition.Builder builder = MetricDefinition.builder();
+        boolean typed = false;
+        boolean documented = false;
+        while (nextField(parser)) {
+            switch (parser.currentName()) {
+                case "type":
+                    builder.type(MetricType.valueOf(requireText(parser, "type")));
+                    typed = true;
+                    break;
+                case "docs":
+                    builder.docs(Documentation.of(requireText(parser, "docs")));
+                    documented = true;
+                    break;
+                case "tags":
+                    if (startArray(parser)) {
+                        while (nextElement(parser)) {
+                            builder.tagDefinitions(parseTag(parser));
+                        }
+                    }
+                    break;
+                case "sampleRate":
+                    if (parser.currentToken() != JsonToken.VALUE_NULL) {
+                        expectNumber(parser);
+                        builder.sampleRate(parser.getDoubleValue());
+                    }
+                    break;
+                case "hot":
+                    if (parser.currentToken() != JsonToken.VALUE_NULL) {
+                        expectBoolean(parser);
+                        builder.hot(parser.getBooleanValue());
+                    }
+                    break;
+                default:
+                    throw unknownField(parser);
+            }
+        }
+        require(parser, typed, "type");
+        require(parser, documented, "docs");
+        return builder.build();
+    }
+
+    private static TagDefinition parseTag(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue()) {
+            return TagDefinition.builder().name(requireText(parser, "name")).build();
+        }
+        expect(parser, JsonToken.START_OBJECT);
+        TagDefinition.Builder builder = TagDefinition.builder();
+        boolean named = false;
+        while (nextField(parser)) {
+            switch (parser.currentName()) {
+                case "name":
+                    builder.name(requireText(parser, "name"));
+                    named = true;
+                    break;
+                case "docs":
+                    builder.docs(Optional.ofNullable(text(parser)).map(Documentation::of));
+                    break;
+                case "values":
+                    builder.values(parseTagValues(parser));
+                    break;
+                case "valueSet":
+                    builder.valueSet(Optional.ofNullable(text(parser)));
+                    break;
+                default:
+                    throw unknownField(parser);
+            }
+        }
+        require(parser, named, "name");
+        return builder.build();
+    }
+
+    private static void parseTagValueSets(JsonParser parser, BiConsumer<String, Set<TagValue>> tagValueSets)
+            throws IOException {
+        if (startObject(parser)) {
+            while (nextField(parser)) {
+                tagValueSets.accept(key(parser), parseTagValues(parser));
+            }
+        }
+    }
+
+    private static Set<TagValue> parseTagValues(JsonParser parser) throws IOException {
+        Set<TagValue> values = new LinkedHashSet<>();
+        if (startArray(parser)) {
+            while (nextElement(parser)) {
+                values.add(parseTagValue(parser));
+            }
+        }
+        return values;
+    }
+
+    private static TagValue parseTagValue(JsonParser parser) throws IOException {
+        if (parser.currentToken().isScalarValue()) {
+            return TagValue.builder().value(requireText(parser, "value")).build();
+        }
+        expect(parser, JsonToken.START_OBJECT);
+        TagValue.Builder builder = TagValue.builder();
+        boolean valued = false;
+        while (nextField(parser)) {
+            switch (parser.currentName()) {
+                case "value":
+                    builder.value(requireText(parser, "value"));
+                    valued = true;
+                    break;
+                case "docs":
+                    builder.docs(Optional.ofNullable(text(parser)).map(Documentation::of));
+                    break;
+                default:
+                    throw unknownField(parser);
+            }
+        }
+        require(parser, valued, "value");
+        return builder.build();
+    }
+
+    /**
+     * Copies the values of the referenced tag value set into metric tags which do not declare their own, preferring
+     * sets of the namespace over those of the schema. Sets may be declared after the metrics which reference them, so
+     * this happens once the whole document has been read, and only rebuilds the namespaces which reference a set.
+     * Unknown sets and conflicting values are left for the {@link Validator} to report.
+     */
+    private static MetricSchema resolveTagValueSets(MetricSchema schema) {
+        Map<String, MetricNamespace> referencing = schema.getNamespaces().entrySet().stream()
+                .filter(entry -> entry.getValue().getMetrics().values().stream()
+                        .anyMatch(LangParser::referencesTagValueSet))
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+        if (referencing.isEmpty()) {
+            return schema;
+        }
+        MetricSchema.Builder builder = MetricSchema.builder().from(schema);
+        referencing.forEach((name, namespace) -> builder.namespaces(
+                name, resolveTagValueSets(namespace, schema.getTagValueSets())));
+        return builder.build();
+    }
+
+    private static MetricNamespace resolveTagValueSets(
+            MetricNamespace namespace, Map<String, Set<TagValue>> schemaTagValueSets) {
+        MetricNamespace.Builder builder = MetricNamespace.builder().from(namespace);
+        namespace.getMetrics().forEach((name, metric) -> {
+            if (referencesTagValueSet(metric)) {
+                builder.metrics(
+                        name,
+                        MetricDefinition.builder()
+                                .from(metric)
+                                .tagDefinitions(metric.getTagDefinitions().stream()
+                                        .map(tag -> resolveTagValueSet(
+                                                tag, namespace.getTagValueSets(), schemaTagValueSets))
+                                        .collect(Collectors.toList()))
+                                .build());
+            }
+        });
+        return builder.build();
+    }
+
+    private static TagDefinition resolveTagValueSet(
+            TagDefinition tag,
+            Map<String, Set<TagValue>> namespaceTagValueSets,
+            Map<String, Set<TagValue>> schemaTagValueSets) {
+        if (!tag.getValues().isEmpty() || tag.getValueSet().isEmpty()) {
+            return tag;
+        }
+        String valueSet = tag.getValueSet().get();
+        Set<TagValue> values = namespaceTagValueSets.getOrDefault(valueSet, schemaTagValueSets.get(valueSet));
+        return values == null ? tag : TagDefinition.builder().from(tag).values(values).build();
+    }
+
+    private static boolean referencesTagValueSet(MetricDefinition metric) {
+        return metric.getTagDefinitions().stream()
+                .anyMatch(tag -> tag.getValues().isEmpty() && tag.getValueSet().isPresent());
+    }
+
+    /** Returns whether the current token starts an object, rather than an explicit null. */
+    private static boolean startObject(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        expect(parser, JsonToken.START_OBJECT);
+        return true;
+    }
+
+    /** Returns whether the current token starts an array, rather than an explicit null. */
+    private static boolean startArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return false;
+        }
+        expect(parser, JsonToken.START_ARRAY);
+        return true;
+    }
+
+    /** Advances to the value of the next field of the current object, returning false at the end of the object. */
+    private static boolean nextField(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.FIELD_NAME) {
+            return false;
+        }
+        parser.nextToken();
+        return true;
+    }
+
+    /** Advances to the next element of the current array, returning false at the end of the array. */
+    private static boolean nextElement(JsonParser parser) throws IOException {
+        return parser.nextToken() != JsonToken.END_ARRAY;
+    }
+
+    /** Name of the field whose value is the current token, interned as it becomes a map key. */
+    private static String key(JsonParser parser) throws IOException {
+        return StringInterningModule.intern(parser.currentName());
+    }
+
+    private static String requireText(JsonParser parser, String field) throws IOException {
+        String text = text(parser);
+        require(parser, text != null, field);
+        return text;
+    }
+
+    private static String text(JsonParser parser) throws IOException {
+        if (parser.currentToken() == JsonToken.VALUE_NULL) {
+            return null;
+        }
+        if (!parser.currentToken().isScalarValue()) {
+            throw new JsonParseException(parser, "Expected a scalar value but found " + parser.currentToken());
+        }
+        return StringInterningModule.intern(parser.getText());
+    }
+
+    private static void expect(JsonParser parser, JsonToken token) throws IOException {
+        if (parser.currentToken() != token) {
+            throw new JsonParseException(parser, "Expected " + token + " but found " + parser.currentToken());
+        }
+    }
+
+    private static void expectNumber(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isNumeric()) {
+            throw new JsonParseException(parser, "Expected a number but found " + parser.currentToken());
+        }
+    }
+
+    private static void expectBoolean(JsonParser parser) throws IOException {
+        if (!parser.currentToken().isBoolean()) {
+            throw new JsonParseException(parser, "Expected a boolean but found " + parser.currentToken());
+        }
+    }
+
+    private static JsonParseException unknownField(JsonParser parser) throws IOException {
+        return new JsonParseException(parser, "Unknown field: " + parser.currentName());
+    }
+
+    private static void require(JsonParser parser, boolean present, String field) throws IOException {
+        if (!present) {
+            throw new JsonParseException(parser, "Missing required field: " + field);
+        }
+    }
+
+    private LangParser() {}
+}
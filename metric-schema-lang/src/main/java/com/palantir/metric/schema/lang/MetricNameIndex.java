@@ -0,0 +1,140 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.MetricType;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Index of fully qualified metric names ({@code namespace.metric}) across schemas from several sources, which detects
+ * names defined more than once in a single pass. Schemas validate independently, so without a shared index two files
+ * or two dependencies may define the same metric and only collide at runtime in the registry.
+ *
+ * <p>Schema level tag value sets are indexed by name as well, since each generates a top level type alongside the
+ * utility classes of its schema. Sets of independently published artifacts are generated into their own packages, so
+ * they are only indexed by an index which rejects every duplicate.
+ */
+public final class MetricNameIndex {
+
+    private final Map<String, Source> sources = new HashMap<>();
+    private final Map<String, String> tagValueSetSources = new HashMap<>();
+    private final List<Duplicate> duplicates = new ArrayList<>();
+    private final boolean allowSameType;
+
+    private MetricNameIndex(boolean allowSameType) {
+        this.allowSameType = allowSameType;
+    }
+
+    /** Creates an index which rejects any name defined more than once. */
+    public static MetricNameIndex create() {
+        return new MetricNameIndex(false);
+    }
+
+    /**
+     * Creates an index which only rejects names defined more than once with different metric types. Identical
+     * registrations share a registry entry, so repeated definitions from independently published artifacts are allowed.
+     */
+    public static MetricNameIndex allowingSameType() {
+        return new MetricNameIndex(true);
+    }
+
+    /** Adds every metric and schema level tag value set defined by {@code schema}, attributing it to {@code source}. */
+    public MetricNameIndex add(String source, MetricSchema schema) {
+        if (!allowSameType) {
+            schema.getTagValueSets().keySet().forEach(name -> {
+                String previous = tagValueSetSources.putIfAbsent(name, source);
+                if (previous != null) {
+                    duplicates.add(new Duplicate(
+                            String.format("tag value set %s is defined in %s and in %s", name, previous, source),
+                            previous,
+                            source));
+                }
+            });
+        }
+        schema.getNamespaces().forEach((namespace, namespaceValue) -> namespaceValue
+                .getMetrics()
+                .forEach((metricName, definition) -> {
+                    String name = namespace + '.' + metricName;
+                    Source previous = sources.putIfAbsent(name, new Source(source, definition.getType()));
+                    if (previous != null && (!allowSameType || !previous.type.equals(definition.getType()))) {
+                        duplicates.add(new Duplicate(
+                                String.format(
+                                        "%s is defined as a %s in %s and as a %s in %s",
+                                        name, previous.type, previous.source, definition.getType(), source),
+                                previous.source,
+                                source));
+                    }
+                }));
+        return this;
+    }
+
+    /** Throws if any name was defined more than once, listing the sources of each duplicate. */
+    public void check() {
+        fail(duplicates.stream().map(duplicate -> duplicate.message).collect(Collectors.toList()));
+    }
+
+    /**
+     * Throws if any metric name defined by one of {@code failingSources} was defined more than once, and returns the
+     * duplicates between other sources so that the caller may report them without failing.
+     */
+    public List<String> checkSources(Set<String> failingSources) {
+        Map<Boolean, List<String>> partitioned = duplicates.stream()
+                .collect(Collectors.partitioningBy(
+                        duplicate -> failingSources.contains(duplicate.first)
+                                || failingSources.contains(duplicate.second),
+                        Collectors.mapping(duplicate -> duplicate.message, Collectors.toList())));
+        fail(partitioned.get(true));
+        return partitioned.get(false);
+    }
+
+    private static void fail(List<String> messages) {
+        if (!messages.isEmpty()) {
+            throw new SafeIllegalArgumentException(
+                    "Encountered duplicate metric names", SafeArg.of("duplicates", messages));
+        }
+    }
+
+    private static final class Duplicate {
+        private final String message;
+        private final String first;
+        private final String second;
+
+        Duplicate(String message, String first, String second) {
+            this.message = message;
+            this.first = first;
+            this.second = second;
+        }
+    }
+
+    private static final class Source {
+        private final String source;
+        private final MetricType type;
+
+        Source(String source, MetricType type) {
+            this.source = source;
+            this.type = type;
+        }
+    }
+}
@@ -16,30 +16,62 @@
 
 package com.palantir.metric.schema.lang;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import com.palantir.conjure.java.serialization.ObjectMappers;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.metric.schema.MetricSchema;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public final class MetricSchemaCompiler {
-    private static final ObjectReader reader = ObjectMappers.withDefaultModules(new ObjectMapper(new YAMLFactory()))
-            .readerFor(LangMetricSchema.class);
+    private static final YAMLFactory factory = new YAMLFactory();
 
+    /** Compiles a single file. Metric names are not checked against any other schema. */
     public static MetricSchema compile(Path inputFile) {
-        MetricSchema metricSchema = readFile(inputFile.toFile());
-        Validator.validate(metricSchema);
-        return metricSchema;
+        MetricSchema schema = readFile(inputFile.toFile());
+        List<Violation> violations = Validator.findViolations(schema).stream()
+                .map(violation -> ImmutableViolation.copyOf(violation).withFile(inputFile))
+                .collect(Collectors.toList());
+        if (!violations.isEmpty()) {
+            throw new MetricSchemaViolationException(violations);
+        }
+        return schema;
+    }
+
+    /**
+     * Compiles each of the input files in parallel, returning schemas in input order. Validation does not stop at the
+     * first problem, every violation across all files is reported in a single exception. Metric names must be unique
+     * across all files.
+     */
+    public static List<MetricSchema> compileAll(List<Path> inputFiles) {
+        List<MetricSchema> schemas = inputFiles.parallelStream()
+                .map(inputFile -> readFile(inputFile.toFile()))
+                .collect(Collectors.toList());
+        List<Violation> violations = IntStream.range(0, inputFiles.size())
+                .parallel()
+                .boxed()
+                .flatMap(index -> Validator.findViolations(schemas.get(index)).stream()
+                        .map(violation -> ImmutableViolation.copyOf(violation).withFile(inputFiles.get(index))))
+                .collect(Collectors.toList());
+        if (!violations.isEmpty()) {
+            throw new MetricSchemaViolationException(violations);
+        }
+        MetricNameIndex index = MetricNameIndex.create();
+        for (int i = 0; i < inputFiles.size(); i++) {
+            index.add(inputFiles.get(i).toString(), schemas.get(i));
+        }
+        index.check();
+        return schemas;
     }
 
     private static MetricSchema readFile(File file) {
-        try {
-            return LangConverter.toApi(reader.readValue(file));
+        try (JsonParser parser = factory.createParser(file)) {
+            return LangParser.parse(parser);
         } catch (IOException e) {
             throw new SafeRuntimeException("Failed to deserialize file", e, SafeArg.of("file", file));
         }
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import com.palantir.logsafe.Arg;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.SafeLoggable;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Thrown when one or more metric schemas break a validation rule. The message lists one violation per line, and
+ * {@link #violations()} exposes them for callers which report problems themselves.
+ */
+public final class MetricSchemaViolationException extends IllegalArgumentException implements SafeLoggable {
+    private static final String LOG_MESSAGE = "Invalid metric schema";
+
+    private final List<Violation> violations;
+
+    MetricSchemaViolationException(List<Violation> violations) {
+        super(render(violations));
+        this.violations = List.copyOf(violations);
+    }
+
+    public List<Violation> violations() {
+        return violations;
+    }
+
+    @Override
+    public String getLogMessage() {
+        return LOG_MESSAGE;
+    }
+
+    @Override
+    public List<Arg<?>> getArgs() {
+        return List.of(SafeArg.of("violationCount", violations.size()), SafeArg.of("violations", violations));
+    }
+
+    private static String render(List<Violation> violations) {
+        return violations.stream()
+                .map(MetricSchemaViolationException::render)
+                .collect(Collectors.joining("\n", LOG_MESSAGE + " (" + violations.size() + " violation(s)):\n", ""));
+    }
+
+    private static String render(Violation violation) {
+        StringBuilder builder = new StringBuilder("  ");
+        violation.file().ifPresent(file -> builder.append(file).append(": "));
+        builder.append("namespace '").append(violation.namespace()).append('\'');
+        violation.metric().ifPresent(metric -> builder.append(", metric '").append(metric).append('\''));
+        builder.append(": ").append(violation.rule());
+        if (!violation.args().isEmpty()) {
+            builder.append(violation.args().stream()
+                    .map(arg -> arg.getName() + "=" + arg.getValue())
+                    .collect(Collectors.joining(", ", " {", "}")));
+        }
+        return builder.toString();
+    }
+}
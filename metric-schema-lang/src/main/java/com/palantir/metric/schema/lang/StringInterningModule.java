@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StringDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import java.io.IOException;
+
+/**
+ * Canonicalizes every deserialized string value and map key, so that schemas loaded from many files share a single
+ * instance of each tag name, tag value and namespace rather than one copy per occurrence.
+ */
+public final class StringInterningModule extends SimpleModule {
+    private static final Interner<String> interner = Interners.newWeakInterner();
+
+    public StringInterningModule() {
+        super(StringInterningModule.class.getSimpleName());
+        addDeserializer(String.class, new InterningStringDeserializer());
+        addKeyDeserializer(String.class, new InterningKeyDeserializer());
+    }
+
+    static String intern(String value) {
+        return value == null ? null : interner.intern(value);
+    }
+
+    private static final class InterningStringDeserializer extends StdScalarDeserializer<String> {
+        private InterningStringDeserializer() {
+            super(String.class);
+        }
+
+        @Override
+        public String deserialize(JsonParser parser, DeserializationContext ctxt) throws IOException {
+            return intern(StringDeserializer.instance.deserialize(parser, ctxt));
+        }
+    }
+
+    private static final class InterningKeyDeserializer extends KeyDeserializer {
+        @Override
+        public Object deserializeKey(String key, DeserializationContext _ctxt) {
+            return intern(key);
+        }
+    }
+}
@@ -16,21 +16,23 @@
 
 package com.palantir.metric.schema.lang;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.Multiset;
 import com.google.errorprone.annotations.CompileTimeConstant;
-import com.palantir.logsafe.Arg;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.metric.schema.Documentation;
+import com.palantir.metric.schema.MetricDefinition;
 import com.palantir.metric.schema.MetricNamespace;
 import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.MetricType;
 import com.palantir.metric.schema.TagDefinition;
+import com.palantir.metric.schema.TagValue;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
@@ -42,122 +44,327 @@ final class Validator {
     private static final String LAST_NAME_SEGMENT_PATTERN = "[a-zA-Z0-9][a-zA-Z0-9\\-]*";
     private static final String NAME_PATTERN = "(" + NAME_SEGMENT_PATTERN + "\\.)*" + LAST_NAME_SEGMENT_PATTERN;
     private static final String TAG_VALUE_PATTERN = "[a-zA-Z0-9:.\\-]*";
+    private static final String SAMPLE_RATE_TAG = "sampleRate";
     private static final Pattern NAME_PREDICATE = Pattern.compile(NAME_PATTERN);
     private static final Pattern SHORT_NAME_PREDICATE = Pattern.compile(SHORT_NAME_PATTERN);
     private static final Pattern TAG_VALUE_PREDICATE = Pattern.compile(TAG_VALUE_PATTERN);
 
     static void validate(MetricSchema schema) {
+        List<Violation> violations = findViolations(schema);
+        if (!violations.isEmpty()) {
+            throw new MetricSchemaViolationException(violations);
+        }
+    }
+
+    /**
+     * Returns every violation in the schema, rather than failing on the first. A single {@link Scope} is moved along
+     * the schema and collections describing problems are only built once a check fails, so that validating a valid
+     * schema allocates per schema rather than per metric or tag.
+     */
+    static List<Violation> findViolations(MetricSchema schema) {
         Preconditions.checkNotNull(schema, "MetricSchema is required");
-        schema.getNamespaces().forEach(Validator::validateNamespace);
+        Scope scope = new Scope();
+        // Schema level tag value sets do not belong to a namespace.
+        validateTagValueSets(scope, schema.getTagValueSets());
+        schema.getNamespaces().forEach((namespace, namespaceValue) -> {
+            scope.namespace(namespace);
+            validateNamespace(scope, namespaceValue, schema.getTagValueSets());
+        });
+        return scope.violations;
     }
 
-    private static void validateNamespace(String namespace, MetricNamespace namespaceValue) {
-        Preconditions.checkArgument(
-                !namespace.isEmpty(),
-                "Namespace must not be empty",
-                // Provide enough data to figure out which schema is missing a namespace
-                SafeArg.of("namespaceValue", namespaceValue));
-        Preconditions.checkArgument(
-                NAME_PREDICATE.matcher(namespace).matches(),
-                "Namespace must match pattern",
-                SafeArg.of("pattern", NAME_PATTERN));
-        validateShortName(namespaceValue);
-        validateDocumentation(namespaceValue.getDocs());
-
-        validateTagDefinitions(namespaceValue.getTags(), Set.of(), List.of(SafeArg.of("namespace", namespace)));
+    private static void validateNamespace(
+            Scope scope, MetricNamespace namespaceValue, Map<String, Set<TagValue>> schemaTagValueSets) {
+        String namespace = scope.namespace;
+        if (namespace.isEmpty()) {
+            // Provide enough data to figure out which schema is missing a namespace
+            scope.report("Namespace must not be empty", SafeArg.of("namespaceValue", namespaceValue));
+        } else if (!scope.isName(namespace)) {
+            scope.report("Namespace must match pattern", SafeArg.of("pattern", NAME_PATTERN));
+        }
+        validateShortName(scope, namespaceValue);
+        validateDocumentation(scope, namespaceValue.getDocs());
+
+        List<TagDefinition> namespaceTags = namespaceValue.getTags();
+        validateTagDefinitions(scope, namespaceTags, List.of());
+        validateTagValueSets(scope, namespaceValue.getTagValueSets());
+        validateShadowedTagValueSets(scope, namespaceValue.getTagValueSets(), schemaTagValueSets);
+        for (int i = 0; i < namespaceTags.size(); i++) {
+            TagDefinition tag = namespaceTags.get(i);
+            if (tag.getValueSet().isPresent()) {
+                scope.report("valueSet is only supported for metric tags", SafeArg.of("tag", tag.getName()));
+            }
+        }
 
         namespaceValue.getMetrics().forEach((name, definition) -> {
-            Preconditions.checkNotNull(definition, "MetricDefinition is required", SafeArg.of("namespace", namespace));
-            Preconditions.checkArgument(
-                    !name.isEmpty(), "MetricDefinition names must not be empty", SafeArg.of("namespace", namespace));
-            Preconditions.checkArgument(
-                    NAME_PREDICATE.matcher(name).matches(),
-                    "MetricDefinition names must match pattern",
-                    SafeArg.of("pattern", NAME_PATTERN),
-                    SafeArg.of("invalidTagName", name));
-            Preconditions.checkArgument(
-                    MetricType.Value.UNKNOWN != definition.getType().get(),
-                    "Unknown metric type",
-                    SafeArg.of("namespace", namespace),
-                    SafeArg.of("definition", definition));
-            validateDocumentation(definition.getDocs());
-            Preconditions.checkArgument(definition.getTags().isEmpty(), "tags field is replaced tagDefinition");
-
-            validateTagDefinitions(
-                    definition.getTagDefinitions(),
-                    namespaceValue.getTags().stream()
-                            .map(TagDefinition::getName)
-                            .collect(Collectors.toSet()),
-                    List.of(SafeArg.of("namespace", namespace), SafeArg.of("definition", definition)));
+            scope.metric(name);
+            if (definition == null) {
+                scope.report("MetricDefinition is required");
+                return;
+            }
+            if (name.isEmpty()) {
+                scope.report("MetricDefinition names must not be empty");
+            } else if (!scope.isName(name)) {
+                scope.report(
+                        "MetricDefinition names must match pattern",
+                        SafeArg.of("pattern", NAME_PATTERN),
+                        SafeArg.of("invalidTagName", name));
+            }
+            if (MetricType.Value.UNKNOWN == definition.getType().get()) {
+                scope.report("Unknown metric type", SafeArg.of("definition", definition));
+            }
+            validateDocumentation(scope, definition.getDocs());
+            if (!definition.getTags().isEmpty()) {
+                scope.report("tags field is replaced tagDefinition");
+            }
+            validateSampleRate(scope, definition);
+            validateHot(scope, definition);
+            validateTagDefinitions(scope, definition.getTagDefinitions(), namespaceTags);
+            validateValueSetReferences(
+                    scope, definition.getTagDefinitions(), namespaceValue.getTagValueSets(), schemaTagValueSets);
         });
     }
 
-    private static void validateTagDefinitions(
-            List<TagDefinition> tagDefinition, Set<String> namespaceTagNames, List<SafeArg<?>> errorContext) {
-        Set<String> duplicateNames =
-                getDuplicates(tagDefinition.stream().map(TagDefinition::getName).collect(Collectors.toList()));
-        checkArgumentWithErrorContext(
-                duplicateNames.isEmpty(),
-                "Encountered duplicate tag names",
-                errorContext,
-                SafeArg.of("duplicateTagNames", duplicateNames));
-        Set<String> duplicateNamespaceTagNames = tagDefinition.stream()
-                .map(TagDefinition::getName)
-                .filter(namespaceTagNames::contains)
+    private static void validateShadowedTagValueSets(
+            Scope scope,
+            Map<String, Set<TagValue>> namespaceTagValueSets,
+            Map<String, Set<TagValue>> schemaTagValueSets) {
+        if (namespaceTagValueSets.isEmpty() || schemaTagValueSets.isEmpty()) {
+            return;
+        }
+        Set<String> shadowedTagValueSets = namespaceTagValueSets.keySet().stream()
+                .filter(schemaTagValueSets::containsKey)
                 .collect(Collectors.toSet());
-        checkArgumentWithErrorContext(
-                duplicateNamespaceTagNames.isEmpty(),
-                "Encountered metric tag names that duplicate namespace tag names",
-                errorContext,
-                SafeArg.of("duplicateTagNames", duplicateNames),
-                SafeArg.of("namespaceTagNames", namespaceTagNames));
-        tagDefinition.forEach(tag -> {
-            checkArgumentWithErrorContext(!tag.getName().isEmpty(), "tag name must not be empty", errorContext);
-            checkArgumentWithErrorContext(
-                    NAME_PREDICATE.matcher(tag.getName()).matches(),
-                    "tags names must match pattern",
-                    errorContext,
-                    SafeArg.of("pattern", NAME_PATTERN));
-            tag.getValues()
-                    .forEach(tagValue -> checkArgumentWithErrorContext(
-                            TAG_VALUE_PREDICATE.matcher(tagValue.getValue()).matches(),
+        if (!shadowedTagValueSets.isEmpty()) {
+            scope.report(
+                    "Encountered namespace tagValueSets that duplicate schema tagValueSets",
+                    SafeArg.of("duplicateTagValueSets", shadowedTagValueSets));
+        }
+    }
+
+    private static void validateTagValueSets(Scope scope, Map<String, Set<TagValue>> tagValueSets) {
+        if (tagValueSets.isEmpty()) {
+            return;
+        }
+        tagValueSets.forEach((name, values) -> {
+            if (!scope.isShortName(name)) {
+                scope.report(
+                        "tagValueSets names must match pattern",
+                        SafeArg.of("tagValueSet", name),
+                        SafeArg.of("pattern", SHORT_NAME_PATTERN));
+            }
+            if (values.size() < 2) {
+                scope.report("tagValueSets must have at least two values", SafeArg.of("tagValueSet", name));
+            }
+            for (TagValue value : values) {
+                if (!scope.isTagValue(value.getValue())) {
+                    scope.report(
                             "tag values must match pattern",
-                            errorContext,
-                            SafeArg.of("tag", tag.getName()),
-                            SafeArg.of("tagValue", tagValue),
-                            SafeArg.of("pattern", TAG_VALUE_PATTERN)));
+                            SafeArg.of("tagValueSet", name),
+                            SafeArg.of("tagValue", value),
+                            SafeArg.of("pattern", TAG_VALUE_PATTERN));
+                }
+            }
         });
     }
 
-    private static Set<String> getDuplicates(List<String> values) {
-        Multiset<String> strings = HashMultiset.create(values);
-        return strings.elementSet().stream()
-                .filter(element -> strings.count(element) > 1)
-                .collect(Collectors.toSet());
+    private static void validateValueSetReferences(
+            Scope scope,
+            List<TagDefinition> tagDefinitions,
+            Map<String, Set<TagValue>> namespaceTagValueSets,
+            Map<String, Set<TagValue>> schemaTagValueSets) {
+        for (int i = 0; i < tagDefinitions.size(); i++) {
+            TagDefinition tag = tagDefinitions.get(i);
+            if (tag.getValueSet().isEmpty()) {
+                continue;
+            }
+            String valueSet = tag.getValueSet().get();
+            Set<TagValue> values = namespaceTagValueSets.getOrDefault(valueSet, schemaTagValueSets.get(valueSet));
+            if (values == null) {
+                scope.report(
+                        "Unknown tag value set", SafeArg.of("tag", tag.getName()), SafeArg.of("valueSet", valueSet));
+            } else if (!values.equals(tag.getValues())) {
+                scope.report(
+                        "tag values must match the referenced tagValueSet",
+                        SafeArg.of("tag", tag.getName()),
+                        SafeArg.of("valueSet", valueSet));
+            }
+        }
+    }
+
+    private static void validateSampleRate(Scope scope, MetricDefinition definition) {
+        if (definition.getSampleRate().isEmpty()) {
+            return;
+        }
+        double sampleRate = definition.getSampleRate().get();
+        if (!MetricType.TIMER.equals(definition.getType()) && !MetricType.HISTOGRAM.equals(definition.getType())) {
+            scope.report(
+                    "sampleRate is only supported for timers and histograms", SafeArg.of("type", definition.getType()));
+        }
+        if (!(sampleRate > 0 && sampleRate <= 1)) {
+            scope.report("sampleRate must be greater than zero and at most one", SafeArg.of("sampleRate", sampleRate));
+        }
+        // Generated code tags sampled metrics with their rate, so that consumers may rescale observed counts.
+        List<TagDefinition> tagDefinitions = definition.getTagDefinitions();
+        for (int i = 0; i < tagDefinitions.size(); i++) {
+            if (SAMPLE_RATE_TAG.equalsIgnoreCase(tagDefinitions.get(i).getName())) {
+                scope.report(
+                        "sampleRate is reserved as a tag of sampled metrics",
+                        SafeArg.of("tag", tagDefinitions.get(i).getName()));
+            }
+        }
+    }
+
+    private static void validateHot(Scope scope, MetricDefinition definition) {
+        if (!definition.getHot().orElse(false)) {
+            return;
+        }
+        if (!MetricType.COUNTER.equals(definition.getType()) && !MetricType.METER.equals(definition.getType())) {
+            scope.report("hot is only supported for counters and meters", SafeArg.of("type", definition.getType()));
+        }
+        int variableTags = 0;
+        for (TagDefinition tag : definition.getTagDefinitions()) {
+            if (tag.getValues().isEmpty()) {
+                scope.report("hot metrics must not have free-form tags", SafeArg.of("tag", tag.getName()));
+            } else if (tag.getValues().size() > 1) {
+                variableTags++;
+            }
+        }
+        if (variableTags > 1) {
+            scope.report(
+                    "hot metrics support at most one tag with multiple values",
+                    SafeArg.of("variableTags", variableTags));
+        }
     }
 
-    private static void validateShortName(MetricNamespace namespace) {
-        namespace
-                .getShortName()
-                .ifPresent(shortName -> Preconditions.checkArgument(
-                        SHORT_NAME_PREDICATE.matcher(shortName).matches(),
-                        "ShortName must match pattern",
-                        SafeArg.of("pattern", SHORT_NAME_PATTERN),
-                        SafeArg.of("invalidShortName", shortName)));
+    /**
+     * Validates the given tags against each other and against the tags of their namespace. Tag lists are short, so
+     * duplicates are found by scanning the preceding tags, and sets naming them are only built once one is found.
+     */
+    private static void validateTagDefinitions(
+            Scope scope, List<TagDefinition> tagDefinitions, List<TagDefinition> namespaceTags) {
+        Set<String> duplicateNames = null;
+        Set<String> duplicateNamespaceTagNames = null;
+        for (int i = 0; i < tagDefinitions.size(); i++) {
+            TagDefinition tag = tagDefinitions.get(i);
+            String name = tag.getName();
+            if (containsTag(tagDefinitions, i, name)) {
+                if (duplicateNames == null) {
+                    duplicateNames = new HashSet<>();
+                }
+                duplicateNames.add(name);
+            }
+            if (containsTag(namespaceTags, namespaceTags.size(), name)) {
+                if (duplicateNamespaceTagNames == null) {
+                    duplicateNamespaceTagNames = new HashSet<>();
+                }
+                duplicateNamespaceTagNames.add(name);
+            }
+            if (name.isEmpty()) {
+                scope.report("tag name must not be empty");
+            } else if (!scope.isName(name)) {
+                scope.report(
+                        "tags names must match pattern", SafeArg.of("tag", name), SafeArg.of("pattern", NAME_PATTERN));
+            }
+            if (tag.getValues().isEmpty()) {
+                continue;
+            }
+            for (TagValue tagValue : tag.getValues()) {
+                if (!scope.isTagValue(tagValue.getValue())) {
+                    scope.report(
+                            "tag values must match pattern",
+                            SafeArg.of("tag", name),
+                            SafeArg.of("tagValue", tagValue),
+                            SafeArg.of("pattern", TAG_VALUE_PATTERN));
+                }
+            }
+        }
+        if (duplicateNames != null) {
+            scope.report("Encountered duplicate tag names", SafeArg.of("duplicateTagNames", duplicateNames));
+        }
+        if (duplicateNamespaceTagNames != null) {
+            scope.report(
+                    "Encountered metric tag names that duplicate namespace tag names",
+                    SafeArg.of("duplicateTagNames", duplicateNamespaceTagNames),
+                    SafeArg.of(
+                            "namespaceTagNames",
+                            namespaceTags.stream().map(TagDefinition::getName).collect(Collectors.toSet())));
+        }
+    }
+
+    /** Returns whether any of the first {@code end} tags is named {@code name}. */
+    private static boolean containsTag(List<TagDefinition> tags, int end, String name) {
+        for (int i = 0; i < end; i++) {
+            if (tags.get(i).getName().equals(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void validateShortName(Scope scope, MetricNamespace namespace) {
+        if (namespace.getShortName().isPresent() && !scope.isShortName(namespace.getShortName().get())) {
+            scope.report(
+                    "ShortName must match pattern",
+                    SafeArg.of("pattern", SHORT_NAME_PATTERN),
+                    SafeArg.of("invalidShortName", namespace.getShortName().get()));
+        }
     }
 
-    private static void validateDocumentation(Documentation documentation) {
-        Preconditions.checkArgument(StringUtils.isNotBlank(documentation.get()), "Documentation must not be blank");
+    private static void validateDocumentation(Scope scope, Documentation documentation) {
+        if (StringUtils.isBlank(documentation.get())) {
+            scope.report("Documentation must not be blank");
+        }
     }
 
-    private static void checkArgumentWithErrorContext(
-            boolean expression,
-            @CompileTimeConstant String message,
-            List<SafeArg<?>> errorContext,
-            SafeArg<?>... args) {
-        List<SafeArg<?>> allArgs = new ArrayList<>(Arrays.asList(args));
-        allArgs.addAll(errorContext);
-        Preconditions.checkArgument(expression, message, allArgs.toArray(new Arg[0]));
+    /**
+     * Location within a schema to which violations are attributed, moved along as validation proceeds. Matchers are
+     * reset for each input rather than created per check.
+     */
+    private static final class Scope {
+        private final Matcher nameMatcher = NAME_PREDICATE.matcher("");
+        private final Matcher shortNameMatcher = SHORT_NAME_PREDICATE.matcher("");
+        private final Matcher tagValueMatcher = TAG_VALUE_PREDICATE.matcher("");
+        private List<Violation> violations = List.of();
+        private String namespace = "";
+        private String metric = "";
+        private boolean inMetric = false;
+
+        /** Attributes subsequent violations to {@code value}, outside of any metric. */
+        void namespace(String value) {
+            namespace = value;
+            inMetric = false;
+        }
+
+        /** Attributes subsequent violations to the metric {@code value} of the current namespace. */
+        void metric(String value) {
+            metric = value;
+            inMetric = true;
+        }
+
+        boolean isName(String input) {
+            return nameMatcher.reset(input).matches();
+        }
+
+        boolean isShortName(String input) {
+            return shortNameMatcher.reset(input).matches();
+        }
+
+        boolean isTagValue(String input) {
+            return tagValueMatcher.reset(input).matches();
+        }
+
+        void report(@CompileTimeConstant String rule, SafeArg<?>... args) {
+            if (violations.isEmpty()) {
+                violations = new ArrayList<>();
+            }
+            violations.add(ImmutableViolation.builder()
+                    .namespace(namespace)
+                    .metric(inMetric ? Optional.of(metric) : Optional.empty())
+                    .rule(rule)
+                    .addArgs(args)
+                    .build());
+        }
     }
 
     private Validator() {}
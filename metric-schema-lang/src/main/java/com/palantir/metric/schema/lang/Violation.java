@@ -1,5 +1,5 @@
 /*
- * (c) Copyright 2021 Palantir Technologies Inc. All rights reserved.
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
  *
  * Licensed under the Apache License, Version 2.0 (the "License");
  * you may not use this file except in compliance with the License.
@@ -16,20 +16,22 @@
 
 package com.palantir.metric.schema.lang;
 
-import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.palantir.logsafe.SafeArg;
+import java.nio.file.Path;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
 import org.immutables.value.Value.Immutable;
 
+/** A single rule broken by a metric schema, located by file, namespace and metric where known. */
 @Immutable
-@JsonDeserialize(as = ImmutableLangMetricNamespace.class)
-public interface LangMetricNamespace {
-    Optional<String> shortName();
+public interface Violation {
+    Optional<Path> file();
 
-    String docs();
+    String namespace();
 
-    List<TagDefinition> tags();
+    Optional<String> metric();
 
-    Map<String, LangMetricDefinition> metrics();
+    String rule();
+
+    List<SafeArg<?>> args();
 }
@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.palantir.metric.schema.Documentation;
+import com.palantir.metric.schema.MetricDefinition;
+import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.MetricType;
+import com.palantir.metric.schema.TagDefinition;
+import com.palantir.metric.schema.TagValue;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class LangParserTest {
+
+    private static final YAMLFactory factory = new YAMLFactory();
+
+    @Test
+    void testParse() throws IOException {
+        MetricSchema schema = parse(String.join(
+                "\n",
+                "options:",
+                "  javaPackage: com.palantir.test",
+                "namespaces:",
+                "  server:",
+                "    shortName: Server",
+                "    docs: Server metrics.",
+                "    tags: [host]",
+                "    metrics:",
+                "      request.time:",
+                "        type: timer",
+                "        docs: Time spent handling requests.",
+                "        sampleRate: 0.1",
+                "        tags:",
+                "          - endpoint",
+                "          - name: result",
+                "            docs: Outcome of the request.",
+                "            values: [success, {value: failure, docs: Failed requests.}]",
+                "      cache.hits:",
+                "        type: counter",
+                "        docs: Number of cache hits.",
+                "        hot: true"));
+        assertThat(schema)
+                .isEqualTo(MetricSchema.builder()
+                        .options("javaPackage", "com.palantir.test")
+                        .namespaces(
+                                "server",
+                                MetricNamespace.builder()
+                                        .shortName("Server")
+                                        .docs(Documentation.of("Server metrics."))
+                                        .tags(TagDefinition.builder().name("host").build())
+                                        .metrics(
+                                                "request.time",
+                                                MetricDefinition.builder()
+                                                        .type(MetricType.TIMER)
+                                                        .docs(Documentation.of("Time spent handling requests."))
+                                                        .sampleRate(0.1)
+                                                        .tagDefinitions(TagDefinition.builder()
+                                                                .name("endpoint")
+                                                                .build())
+                                                        .tagDefinitions(TagDefinition.builder()
+                                                                .name("result")
+                                                                .docs(Documentation.of("Outcome of the request."))
+                                                                .values(TagValue.builder()
+                                                                        .value("success")
+                                                                        .build())
+                                                                .values(TagValue.builder()
+                                                                        .value("failure")
+                                                                        .docs(Documentation.of("Failed requests."))
+                                                                        .build())
+                                                                .build())
+                                                        .build())
+                                        .metrics(
+                                                "cache.hits",
+                                                MetricDefinition.builder()
+                                                        .type(MetricType.COUNTER)
+                                                        .docs(Documentation.of("Number of cache hits."))
+                                                        .hot(true)
+                                                        .build())
+                                        .build())
+                        .build());
+    }
+
+    @Test
+    void testParse_resolvesTagValueSetsDeclaredAfterUse() throws IOException {
+        MetricSchema schema = parse(String.join(
+                "\n",
+                "namespaces:",
+                "  server:",
+                "    docs: Server metrics.",
+                "    metrics:",
+                "      requests:",
+                "        type: meter",
+                "        docs: Requests handled.",
+                "        tags:",
+                "          - {name: result, valueSet: Outcome}",
+                "          - {name: priority, valueSet: Priority}",
+                "    tagValueSets:",
+                "      Priority: [high, low]",
+                "tagValueSets:",
+                "  Outcome: [success, failure]",
+                "  Priority: [ignored]"));
+        assertThat(schema.getNamespaces().get("server").getMetrics().get("requests").getTagDefinitions())
+                .extracting(TagDefinition::getName, TagDefinition::getValues)
+                .containsExactly(
+                        tuple("result", Set.of(tagValue("success"), tagValue("failure"))),
+                        tuple("priority", Set.of(tagValue("high"), tagValue("low"))));
+    }
+
+    @Test
+    void testParse_internsStrings() throws IOException {
+        String yaml = String.join(
+                "\n",
+                "namespaces:",
+                "  server:",
+                "    docs: Server metrics.",
+                "    metrics:",
+                "      requests:",
+                "        type: meter",
+                "        docs: Requests handled.",
+                "        tags: [endpoint]");
+        TagDefinition first = parse(yaml)
+                .getNamespaces()
+                .get("server")
+                .getMetrics()
+                .get("requests")
+                .getTagDefinitions()
+                .get(0);
+        TagDefinition second = parse(yaml)
+                .getNamespaces()
+                .get("server")
+                .getMetrics()
+                .get("requests")
+                .getTagDefinitions()
+                .get(0);
+        assertThat(first.getName()).isSameAs(second.getName());
+    }
+
+    @Test
+    void testParse_rejectsUnknownFields() {
+        assertThatThrownBy(() -> parse(String.join(
+                        "\n",
+                        "namespaces:",
+                        "  server:",
+                        "    docs: Server metrics.",
+                        "    metrics:",
+                        "      requests:",
+                        "        type: meter",
+                        "        docs: Requests handled.",
+                        "        sampleRates: 0.5")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("Unknown field: sampleRates");
+    }
+
+    @Test
+    void testParse_requiresDocs() {
+        assertThatThrownBy(() -> parse(String.join(
+                        "\n", "namespaces:", "  server:", "    metrics:", "      requests:", "        type: meter")))
+                .isInstanceOf(JsonParseException.class)
+                .hasMessageContaining("Missing required field: docs");
+    }
+
+    @Test
+    void testParse_rejectsSampleRatesWhichAreNotNumbers() {
+        for (String sampleRate : List.of("\"abc\"", "1O", "[0.5]", "{rate: 0.5}")) {
+            assertThatThrownBy(() -> parse(metric("sampleRate: " + sampleRate)))
+                    .as("sampleRate: %s", sampleRate)
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessageContaining("Expected a number");
+        }
+    }
+
+    @Test
+    void testParse_rejectsHotValuesWhichAreNotBooleans() {
+        for (String hot : List.of("yes-please", "\"true\"", "1", "[true]", "{value: true}")) {
+            assertThatThrownBy(() -> parse(metric("hot: " + hot)))
+                    .as("hot: %s", hot)
+                    .isInstanceOf(JsonParseException.class)
+                    .hasMessageContaining("Expected a boolean");
+        }
+    }
+
+    /** Schema with a single meter, which also declares the given field. */
+    private static String metric(String field) {
+        return String.join(
+                "\n",
+                "namespaces:",
+                "  server:",
+                "    docs: Server metrics.",
+                "    metrics:",
+                "      requests:",
+                "        type: meter",
+                "        docs: Requests handled.",
+                "        " + field);
+    }
+
+    private static TagValue tagValue(String value) {
+        return TagValue.builder().value(value).build();
+    }
+
+    private static MetricSchema parse(String yaml) throws IOException {
+        try (JsonParser parser = factory.createParser(yaml)) {
+            return LangParser.parse(parser);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
+
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.metric.schema.Documentation;
+import com.palantir.metric.schema.MetricDefinition;
+import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.MetricType;
+import com.palantir.metric.schema.TagValue;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class MetricNameIndexTest {
+
+    private static final Documentation DOCS = Documentation.of("Example documentation.");
+
+    @Test
+    void testDuplicateAcrossSources() {
+        MetricNameIndex index = MetricNameIndex.create()
+                .add("first.yml", schema("server", "requests", MetricType.METER))
+                .add("second.yml", schema("server", "requests", MetricType.METER));
+        assertThatThrownBy(index::check)
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("Encountered duplicate metric names")
+                .hasMessageContaining(
+                        "server.requests is defined as a METER in first.yml and as a METER in second.yml");
+    }
+
+    @Test
+    void testDuplicateAcrossNamespaces() {
+        MetricNameIndex index = MetricNameIndex.create()
+                .add("metrics.yml", schema("server", "worker.count", MetricType.COUNTER))
+                .add("metrics.yml", schema("server.worker", "count", MetricType.GAUGE));
+        assertThatThrownBy(index::check)
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("server.worker.count is defined as a COUNTER in metrics.yml");
+    }
+
+    @Test
+    void testDuplicateTagValueSetAcrossSources() {
+        MetricSchema first = withTagValueSet(schema("server", "requests", MetricType.METER), "Outcome");
+        MetricSchema second = withTagValueSet(schema("client", "requests", MetricType.METER), "Outcome");
+        assertThatThrownBy(() -> MetricNameIndex.create()
+                        .add("first.yml", first)
+                        .add("second.yml", second)
+                        .check())
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("tag value set Outcome is defined in first.yml and in second.yml");
+        assertThatCode(() -> MetricNameIndex.allowingSameType()
+                        .add("com.palantir:first", first)
+                        .add("com.palantir:second", second)
+                        .check())
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void testAllowingSameType() {
+        assertThatCode(() -> MetricNameIndex.allowingSameType()
+                        .add("com.palantir:first", schema("server", "requests", MetricType.METER))
+                        .add("com.palantir:second", schema("server", "requests", MetricType.METER))
+                        .check())
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> MetricNameIndex.allowingSameType()
+                        .add("com.palantir:first", schema("server", "requests", MetricType.METER))
+                        .add("com.palantir:second", schema("server", "requests", MetricType.TIMER))
+                        .check())
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("com.palantir:first")
+                .hasMessageContaining("com.palantir:second");
+    }
+
+    @Test
+    void testCheckSources() {
+        MetricNameIndex index = MetricNameIndex.allowingSameType()
+                .add("com.palantir:local", schema("server", "requests", MetricType.METER))
+                .add("com.palantir:first", schema("client", "requests", MetricType.METER))
+                .add("com.palantir:second", schema("client", "requests", MetricType.TIMER));
+        assertThat(index.checkSources(Set.of("com.palantir:local")))
+                .containsExactly("client.requests is defined as a METER in com.palantir:first"
+                        + " and as a TIMER in com.palantir:second");
+        assertThatThrownBy(() -> index.add("com.palantir:third", schema("server", "requests", MetricType.COUNTER))
+                        .checkSources(Set.of("com.palantir:local")))
+                .isInstanceOf(SafeIllegalArgumentException.class)
+                .hasMessageContaining("server.requests is defined as a METER in com.palantir:local");
+    }
+
+    private static MetricSchema withTagValueSet(MetricSchema schema, String tagValueSet) {
+        return MetricSchema.builder()
+                .from(schema)
+                .tagValueSets(
+                        tagValueSet,
+                        Set.of(
+                                TagValue.builder().value("success").build(),
+                                TagValue.builder().value("failure").build()))
+                .build();
+    }
+
+    private static MetricSchema schema(String namespace, String metric, MetricType type) {
+        return MetricSchema.builder()
+                .namespaces(
+                        namespace,
+                        MetricNamespace.builder()
+                                .docs(DOCS)
+                                .metrics(
+                                        metric,
+                                        MetricDefinition.builder()
+                                                .docs(DOCS)
+                                                .type(type)
+                                                .build())
+                                .build())
+                .build();
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.lang;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.palantir.conjure.java.serialization.ObjectMappers;
+import com.palantir.metric.schema.Documentation;
+import com.palantir.metric.schema.MetricDefinition;
+import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.MetricType;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+
+class StringInterningModuleTest {
+
+    private static final int LIBRARIES = 500;
+    private static final int METRICS_PER_LIBRARY = 100;
+
+    @Test
+    void testLargeManifestSharesStrings() throws IOException {
+        byte[] manifest = ObjectMappers.newClientObjectMapper().writeValueAsBytes(syntheticManifest());
+
+        // Without interning every occurrence is a separate copy, with interning only the distinct values remain.
+        assertThat(distinctInstances(read(ObjectMappers.newClientObjectMapper(), manifest)))
+                .hasSizeGreaterThan(LIBRARIES * METRICS_PER_LIBRARY);
+        assertThat(distinctInstances(read(
+                        ObjectMappers.newClientObjectMapper().registerModule(new StringInterningModule()), manifest)))
+                .hasSize(3 + LIBRARIES + METRICS_PER_LIBRARY);
+    }
+
+    private static Map<String, List<MetricSchema>> read(ObjectMapper mapper, byte[] manifest) throws IOException {
+        return mapper.readValue(manifest, new TypeReference<>() {});
+    }
+
+    /** Namespace names, metric names, tags and docs, compared by identity. */
+    private static Set<String> distinctInstances(Map<String, List<MetricSchema>> manifest) {
+        Set<String> strings = Collections.newSetFromMap(new IdentityHashMap<>());
+        manifest.values().forEach(schemas -> schemas.forEach(schema -> schema.getNamespaces()
+                .forEach((namespaceName, namespace) -> {
+                    strings.add(namespaceName);
+                    strings.add(namespace.getDocs().get());
+                    namespace.getMetrics().forEach((metricName, metric) -> {
+                        strings.add(metricName);
+                        strings.add(metric.getDocs().get());
+                        strings.addAll(metric.getTags());
+                    });
+                })));
+        return strings;
+    }
+
+    private static Map<String, List<MetricSchema>> syntheticManifest() {
+        Map<String, List<MetricSchema>> manifest = new TreeMap<>();
+        for (int library = 0; library < LIBRARIES; library++) {
+            MetricNamespace.Builder namespace = MetricNamespace.builder().docs(Documentation.of("Namespace docs."));
+            for (int metric = 0; metric < METRICS_PER_LIBRARY; metric++) {
+                namespace.metrics(
+                        "metric" + metric,
+                        MetricDefinition.builder()
+                                .type(MetricType.METER)
+                                .tags("endpoint")
+                                .docs(Documentation.of("Metric docs."))
+                                .build());
+            }
+            manifest.put(
+                    "com.palantir:library" + library,
+                    List.of(MetricSchema.builder()
+                            .namespaces("library" + library, namespace.build())
+                            .build()));
+        }
+        return manifest;
+    }
+}
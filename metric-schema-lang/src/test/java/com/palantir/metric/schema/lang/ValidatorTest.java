@@ -16,16 +16,25 @@
 
 package com.palantir.metric.schema.lang;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assumptions.assumeThat;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThatCode;
 
-import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.metric.schema.Documentation;
 import com.palantir.metric.schema.MetricDefinition;
 import com.palantir.metric.schema.MetricNamespace;
 import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.MetricType;
 import com.palantir.metric.schema.TagDefinition;
+import com.palantir.metric.schema.TagValue;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import org.assertj.core.groups.Tuple;
 import org.junit.jupiter.api.Test;
 
 class ValidatorTest {
@@ -37,7 +46,7 @@ class ValidatorTest {
         assertThatThrownBy(() -> Validator.validate(MetricSchema.builder()
                         .namespaces("", MetricNamespace.builder().docs(DOCS).build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Namespace must not be empty");
     }
 
@@ -46,7 +55,7 @@ class ValidatorTest {
         assertThatThrownBy(() -> Validator.validate(MetricSchema.builder()
                         .namespaces("a..b", MetricNamespace.builder().docs(DOCS).build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Namespace must match pattern");
     }
 
@@ -55,7 +64,7 @@ class ValidatorTest {
         assertThatThrownBy(() -> Validator.validate(MetricSchema.builder()
                         .namespaces("a b", MetricNamespace.builder().docs(DOCS).build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Namespace must match pattern");
     }
 
@@ -64,7 +73,7 @@ class ValidatorTest {
         assertThatThrownBy(() -> Validator.validate(MetricSchema.builder()
                         .namespaces("a\nb", MetricNamespace.builder().docs(DOCS).build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Namespace must match pattern");
     }
 
@@ -80,7 +89,7 @@ class ValidatorTest {
                                         .docs(DOCS)
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Encountered duplicate tag names");
     }
 
@@ -99,7 +108,7 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("MetricDefinition names must not be empty");
     }
 
@@ -119,7 +128,7 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Unknown metric type");
     }
 
@@ -141,7 +150,7 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("tag name must not be empty");
     }
 
@@ -154,7 +163,7 @@ class ValidatorTest {
                                         .docs(Documentation.of("\t \n"))
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Documentation must not be blank");
     }
 
@@ -173,7 +182,7 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Documentation must not be blank");
     }
 
@@ -208,7 +217,7 @@ class ValidatorTest {
                                         .shortName("abcdEfg")
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("ShortName must match pattern");
     }
 
@@ -249,7 +258,7 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Encountered duplicate tag names");
     }
 
@@ -272,7 +281,282 @@ class ValidatorTest {
                                                         .build())
                                         .build())
                         .build()))
-                .isInstanceOf(SafeIllegalArgumentException.class)
+                .isInstanceOf(MetricSchemaViolationException.class)
                 .hasMessageContaining("Encountered metric tag names that duplicate namespace tag names");
     }
+
+    @Test
+    void testValidateSampleRate_timer() {
+        assertThatCode(() -> Validator.validate(sampledMetric(MetricType.TIMER, 0.5)))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void testValidateSampleRate_counter() {
+        assertThatThrownBy(() -> Validator.validate(sampledMetric(MetricType.COUNTER, 0.5)))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("sampleRate is only supported for timers and histograms");
+    }
+
+    @Test
+    void testValidateSampleRate_outOfRange() {
+        assertThatThrownBy(() -> Validator.validate(sampledMetric(MetricType.HISTOGRAM, 0)))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("sampleRate must be greater than zero and at most one");
+        assertThatThrownBy(() -> Validator.validate(sampledMetric(MetricType.HISTOGRAM, 1.5)))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("sampleRate must be greater than zero and at most one");
+    }
+
+    @Test
+    void testValidateSampleRate_reservedTag() {
+        MetricSchema schema = sampledMetric(MetricType.TIMER, 0.5);
+        MetricDefinition metric = schema.getNamespaces().get("test").getMetrics().get("metric");
+        assertThatThrownBy(() -> Validator.validate(MetricSchema.builder()
+                        .namespaces(
+                                "test",
+                                MetricNamespace.builder()
+                                        .docs(DOCS)
+                                        .metrics(
+                                                "metric",
+                                                MetricDefinition.builder()
+                                                        .from(metric)
+                                                        .tagDefinitions(TagDefinition.builder()
+                                                                .name("sampleRate")
+                                                                .build())
+                                                        .build())
+                                        .build())
+                        .build()))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("sampleRate is reserved as a tag of sampled metrics");
+    }
+
+    private static MetricSchema sampledMetric(MetricType type, double sampleRate) {
+        return MetricSchema.builder()
+                .namespaces(
+                        "test",
+                        MetricNamespace.builder()
+                                .docs(DOCS)
+                                .metrics(
+                                        "metric",
+                                        MetricDefinition.builder()
+                                                .docs(DOCS)
+                                                .type(type)
+                                                .sampleRate(sampleRate)
+                                                .build())
+                                .build())
+                .build();
+    }
+
+    @Test
+    void testValidateHot() {
+        assertThatCode(() -> Validator.validate(hotMetric(MetricType.COUNTER, enumTag("cause"))))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> Validator.validate(hotMetric(MetricType.TIMER)))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("hot is only supported for counters and meters");
+    }
+
+    @Test
+    void testValidateHot_tags() {
+        assertThatThrownBy(() -> Validator.validate(hotMetric(
+                        MetricType.METER, TagDefinition.builder().name("endpoint").build())))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("hot metrics must not have free-form tags");
+        assertThatThrownBy(() -> Validator.validate(hotMetric(MetricType.METER, enumTag("cause"), enumTag("status"))))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("hot metrics support at most one tag with multiple values");
+    }
+
+    @Test
+    void testValidateTagValueSets() {
+        assertThatCode(() -> Validator.validate(tagValueSetMetric("Outcome", enumTag("result", "Outcome"))))
+                .doesNotThrowAnyException();
+        assertThatThrownBy(() -> Validator.validate(tagValueSetMetric("outcome", enumTag("result", "outcome"))))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("tagValueSets names must match pattern");
+        assertThatThrownBy(() -> Validator.validate(tagValueSetMetric("Outcome", enumTag("result", "Missing"))))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("Unknown tag value set");
+        assertThatThrownBy(() -> Validator.validate(tagValueSetMetric(
+                        "Outcome",
+                        TagDefinition.builder()
+                                .name("result")
+                                .values(TagValue.builder().value("first").build())
+                                .valueSet("Outcome")
+                                .build())))
+                .isInstanceOf(MetricSchemaViolationException.class)
+                .hasMessageContaining("tag values must match the referenced tagValueSet");
+    }
+
+    private static MetricSchema tagValueSetMetric(String tagValueSet, TagDefinition tag) {
+        return MetricSchema.builder()
+                .tagValueSets(tagValueSet, enumTag("values").getValues())
+                .namespaces(
+                        "test",
+                        MetricNamespace.builder()
+                                .docs(DOCS)
+                                .metrics(
+                                        "metric",
+                                        MetricDefinition.builder()
+                                                .docs(DOCS)
+                                                .type(MetricType.COUNTER)
+                                                .tagDefinitions(tag)
+                                                .build())
+                                .build())
+                .build();
+    }
+
+    private static TagDefinition enumTag(String name, String valueSet) {
+        return TagDefinition.builder()
+                .from(enumTag(name))
+                .valueSet(valueSet)
+                .build();
+    }
+
+    private static TagDefinition enumTag(String name) {
+        return TagDefinition.builder()
+                .name(name)
+                .values(TagValue.builder().value("first").build())
+                .values(TagValue.builder().value("second").build())
+                .build();
+    }
+
+    private static MetricSchema hotMetric(MetricType type, TagDefinition... tags) {
+        return MetricSchema.builder()
+                .namespaces(
+                        "test",
+                        MetricNamespace.builder()
+                                .docs(DOCS)
+                                .metrics(
+                                        "metric",
+                                        MetricDefinition.builder()
+                                                .docs(DOCS)
+                                                .type(type)
+                                                .tagDefinitions(Arrays.asList(tags))
+                                                .hot(true)
+                                                .build())
+                                .build())
+                .build();
+    }
+
+    @Test
+    void testFindViolations_largeSchema() {
+        TagDefinition namespaceTag = TagDefinition.builder().name("tenant").build();
+        MetricSchema.Builder schema = MetricSchema.builder();
+        List<Tuple> expected = new ArrayList<>();
+        // Ten namespaces of a thousand metrics each, where every 250th metric of odd namespaces repeats the namespace
+        // tag. Only those metrics may be reported, each exactly once, even though the namespace tag set is shared.
+        for (int namespaceIndex = 0; namespaceIndex < 10; namespaceIndex++) {
+            String namespaceName = "namespace" + namespaceIndex;
+            MetricNamespace.Builder namespace = MetricNamespace.builder().docs(DOCS).tags(namespaceTag);
+            for (int metricIndex = 0; metricIndex < 1_000; metricIndex++) {
+                String metricName = "metric" + metricIndex;
+                MetricDefinition.Builder metric = MetricDefinition.builder()
+                        .docs(DOCS)
+                        .type(MetricType.TIMER)
+                        .tagDefinitions(TagDefinition.builder()
+                                .name("result")
+                                .values(TagValue.builder().value("success").build())
+                                .values(TagValue.builder().value("failure").build())
+                                .build())
+                        .tagDefinitions(TagDefinition.builder().name("endpoint").build());
+                if (namespaceIndex % 2 == 1 && metricIndex % 250 == 0) {
+                    metric.tagDefinitions(namespaceTag);
+                    expected.add(tuple(
+                            namespaceName,
+                            Optional.of(metricName),
+                            "Encountered metric tag names that duplicate namespace tag names"));
+                }
+                namespace.metrics(metricName, metric.build());
+            }
+            schema.namespaces(namespaceName, namespace.build());
+        }
+        assertThat(Validator.findViolations(schema.build()))
+                .extracting(Violation::namespace, Violation::metric, Violation::rule)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testFindViolations_validLargeSchemaDoesNotAllocatePerMetric() {
+        MetricSchema.Builder builder = MetricSchema.builder();
+        for (int namespaceIndex = 0; namespaceIndex < 10; namespaceIndex++) {
+            MetricNamespace.Builder namespace = MetricNamespace.builder()
+                    .docs(DOCS)
+                    .tags(TagDefinition.builder().name("tenant").build());
+            for (int metricIndex = 0; metricIndex < 1_000; metricIndex++) {
+                namespace.metrics(
+                        "metric" + metricIndex,
+                        MetricDefinition.builder()
+                                .docs(DOCS)
+                                .type(MetricType.TIMER)
+                                .sampleRate(0.5)
+                                .tagDefinitions(enumTag("result"))
+                                .tagDefinitions(TagDefinition.builder().name("endpoint").build())
+                                .build());
+            }
+            builder.namespaces("namespace" + namespaceIndex, namespace.build());
+        }
+        MetricSchema schema = builder.build();
+        assumeThat(ManagementFactory.getThreadMXBean()).isInstanceOf(com.sun.management.ThreadMXBean.class);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeThat(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled())
+                .isTrue();
+        // Warm up, so that the measured pass runs compiled code as a build validating many schemas would.
+        for (int i = 0; i < 20; i++) {
+            assertThat(Validator.findViolations(schema)).isEmpty();
+        }
+        long before = threads.getCurrentThreadAllocatedBytes();
+        List<Violation> violations = Validator.findViolations(schema);
+        long allocated = threads.getCurrentThreadAllocatedBytes() - before;
+        assertThat(violations).isEmpty();
+        // Allows for iterators the JIT may not eliminate, but not for the scopes, tag name sets and matchers which
+        // validation used to allocate for every metric, together about a kilobyte per metric.
+        assertThat(allocated).isLessThan(10_000 * 100L);
+    }
+
+    @Test
+    void testFindViolations_reportsEveryViolation() {
+        assertThat(Validator.findViolations(twoViolations()))
+                .extracting(Violation::namespace, Violation::metric, Violation::rule)
+                .containsExactly(
+                        tuple("test", Optional.of("first"), "Documentation must not be blank"),
+                        tuple("test", Optional.of("second"), "sampleRate is only supported for timers and histograms"));
+    }
+
+    @Test
+    void testValidate_rendersOneLinePerViolation() {
+        assertThatThrownBy(() -> Validator.validate(twoViolations()))
+                .isInstanceOfSatisfying(MetricSchemaViolationException.class, exception -> {
+                    assertThat(exception.violations()).hasSize(2);
+                    assertThat(exception.getLogMessage()).isEqualTo("Invalid metric schema");
+                })
+                .hasMessage("Invalid metric schema (2 violation(s)):\n"
+                        + "  namespace 'test', metric 'first': Documentation must not be blank\n"
+                        + "  namespace 'test', metric 'second': sampleRate is only supported for timers and histograms"
+                        + " {type=METER}");
+    }
+
+    private static MetricSchema twoViolations() {
+        return MetricSchema.builder()
+                .namespaces(
+                        "test",
+                        MetricNamespace.builder()
+                                .docs(DOCS)
+                                .metrics(
+                                        "first",
+                                        MetricDefinition.builder()
+                                                .docs(Documentation.of(" "))
+                                                .type(MetricType.COUNTER)
+                                                .build())
+                                .metrics(
+                                        "second",
+                                        MetricDefinition.builder()
+                                                .docs(DOCS)
+                                                .type(MetricType.METER)
+                                                .sampleRate(0.5)
+                                                .build())
+                                .build())
+                .build();
+    }
 }
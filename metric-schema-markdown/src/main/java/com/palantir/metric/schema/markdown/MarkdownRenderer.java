@@ -20,11 +20,16 @@ import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.CharMatcher;
 import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
 import com.palantir.metric.schema.MetricDefinition;
 import com.palantir.metric.schema.MetricNamespace;
 import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.TagDefinition;
 import com.palantir.metric.schema.TagValue;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
@@ -37,11 +42,53 @@ import org.apache.commons.lang3.StringUtils;
 /** {@link MarkdownRenderer} consumes consolidated metric schemas from a distribution to produce metrics in markdown. */
 public final class MarkdownRenderer {
 
+    /**
+     * Orders namespaces by name, breaking ties using the documentation, number of metrics, then a precomputed content
+     * fingerprint.
+     */
+    private static final Comparator<Namespace> NAMESPACE_ORDER = Comparator.comparing(Namespace::name)
+            .thenComparing(namespace -> namespace.definition().getDocs().get())
+            .thenComparingInt(namespace -> namespace.definition().getMetrics().size())
+            .thenComparingLong(Namespace::fingerprint);
+
+    /** Number of sections rendered concurrently, which bounds how much rendered output is buffered at once. */
+    private static final int BATCH_SIZE = 32;
+
     /** Returns rendered markdown based on the provided schemas. */
     public static String render(String localCoordinate, Map<String, List<MetricSchema>> schemas) {
-        StringBuilder buffer = new StringBuilder().append("# Metrics\n");
-        namespaces(localCoordinate, schemas).forEach(section -> render(section, buffer));
-        return CharMatcher.whitespace().trimFrom(buffer.toString());
+        StringWriter writer = new StringWriter();
+        try {
+            render(localCoordinate, schemas, writer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return writer.toString();
+    }
+
+    /**
+     * Writes rendered markdown based on the provided schemas to {@code output}. Sections are rendered concurrently in
+     * ordered batches, each written before the next is rendered, so at most one batch of rendered sections is held in
+     * memory. The writer is flushed, but not closed.
+     */
+    public static void render(String localCoordinate, Map<String, List<MetricSchema>> schemas, Writer output)
+            throws IOException {
+        Writer writer = new TrimmingWriter(output);
+        writer.write("# Metrics\n");
+        for (List<Section> batch : Lists.partition(namespaces(localCoordinate, schemas), BATCH_SIZE)) {
+            List<String> rendered = batch.parallelStream()
+                    .map(MarkdownRenderer::render)
+                    .collect(ImmutableList.toImmutableList());
+            for (String section : rendered) {
+                writer.write(section);
+            }
+        }
+        writer.flush();
+    }
+
+    private static String render(Section section) {
+        StringBuilder buffer = new StringBuilder();
+        render(section, buffer);
+        return buffer.toString();
     }
 
     private static void render(Section section, StringBuilder output) {
@@ -82,10 +129,12 @@ public final class MarkdownRenderer {
             MetricNamespace metricNamespace,
             MetricDefinition metric,
             StringBuilder output) {
-        List<TagDefinition> allTags = ImmutableList.<TagDefinition>builder()
-                .addAll(metricNamespace.getTags())
-                .addAll(metric.getTagDefinitions())
-                .build();
+        List<TagDefinition> allTags = metric.getTagDefinitions().isEmpty()
+                ? metricNamespace.getTags()
+                : ImmutableList.<TagDefinition>builder()
+                        .addAll(metricNamespace.getTags())
+                        .addAll(metric.getTagDefinitions())
+                        .build();
         output.append("- `").append(namespace).append('.').append(metricName).append('`');
         boolean hasComplexTags = hasComplexTags(allTags);
         if (!metric.getTags().isEmpty()) {
@@ -100,9 +149,9 @@ public final class MarkdownRenderer {
                             .collect(Collectors.joining(", ")));
         }
 
-        output.append(" (")
-                .append(metric.getType().toString().toLowerCase(Locale.ENGLISH))
-                .append("): ")
+        output.append(" (").append(metric.getType().toString().toLowerCase(Locale.ENGLISH));
+        metric.getSampleRate().ifPresent(sampleRate -> output.append(", sampled at ").append(sampleRate));
+        output.append("): ")
                 .append(metric.getDocs().get())
                 .append('\n');
         if (hasComplexTags) {
@@ -136,8 +185,8 @@ public final class MarkdownRenderer {
 
             if (hasEnumValueDocs) {
                 tagDefinition.getValues().forEach(value -> {
-                    output.append(String.format("    - `%s`", value.getValue()));
-                    value.getDocs().ifPresent(docs -> output.append(String.format(": %s", docs)));
+                    output.append("    - `").append(value.getValue()).append('`');
+                    value.getDocs().ifPresent(docs -> output.append(": ").append(docs));
                     output.append("\n");
                 });
             }
@@ -151,19 +200,11 @@ public final class MarkdownRenderer {
                         .sourceCoordinates(entry.getKey())
                         .namespaces(entry.getValue().stream()
                                 .flatMap(schema -> schema.getNamespaces().entrySet().stream())
-                                // Break ties on the namespace name using the documentation, number of metrics, then
-                                // MetricNamespace hashCode.
-                                .sorted(Map.Entry.<String, MetricNamespace>comparingByKey()
-                                        .thenComparing(Map.Entry.comparingByValue(Comparator.comparing(
-                                                namespace -> namespace.getDocs().get())))
-                                        .thenComparing(Map.Entry.comparingByValue(Comparator.comparing(namespace ->
-                                                namespace.getMetrics().size())))
-                                        .thenComparing(Map.Entry.comparingByValue(
-                                                Comparator.comparing(MetricNamespace::hashCode))))
                                 .map(schemaEntry -> Namespace.builder()
                                         .name(schemaEntry.getKey())
                                         .definition(schemaEntry.getValue())
                                         .build())
+                                .sorted(NAMESPACE_ORDER)
                                 .collect(ImmutableList.toImmutableList()))
                         .build())
                 .collect(ImmutableList.toImmutableList());
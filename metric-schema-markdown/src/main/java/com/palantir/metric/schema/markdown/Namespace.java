@@ -16,9 +16,15 @@
 
 package com.palantir.metric.schema.markdown;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.palantir.metric.schema.MetricNamespace;
+import com.palantir.metric.schema.TagDefinition;
+import java.nio.charset.StandardCharsets;
+import java.util.TreeMap;
 import org.immutables.value.Value;
 
 // Automatically suppressed to unblock enforcement in new code
@@ -36,6 +42,28 @@ interface Namespace {
 
     MetricNamespace definition();
 
+    /**
+     * Deterministic tie-breaker for namespaces which share a name, docs and metric count. Computed once per namespace
+     * from a canonical form, each metric sorted by name followed by its type and sorted tag names, so that sorting
+     * compares fixed-size keys which are stable across JVMs rather than hashing the full definition on every
+     * comparison.
+     */
+    @Value.Lazy
+    @JsonIgnore
+    default long fingerprint() {
+        Hasher hasher = Hashing.sha256().newHasher();
+        new TreeMap<>(definition().getMetrics()).forEach((metricName, metric) -> {
+            hasher.putString(metricName, StandardCharsets.UTF_8).putByte((byte) 0);
+            hasher.putString(metric.getType().toString(), StandardCharsets.UTF_8).putByte((byte) 0);
+            metric.getTagDefinitions().stream()
+                    .map(TagDefinition::getName)
+                    .sorted()
+                    .forEach(tag -> hasher.putString(tag, StandardCharsets.UTF_8).putByte((byte) 0));
+            hasher.putByte((byte) 1);
+        });
+        return hasher.hash().asLong();
+    }
+
     class Builder extends ImmutableNamespace.Builder {}
 
     static Builder builder() {
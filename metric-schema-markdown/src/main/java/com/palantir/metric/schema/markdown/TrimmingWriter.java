@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.markdown;
+
+import com.google.common.base.CharMatcher;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * {@link Writer} which drops leading and trailing whitespace, producing the same output as
+ * {@link CharMatcher#trimFrom(CharSequence)} without buffering the document. Whitespace is held back until a
+ * non-whitespace character follows it, so trailing whitespace is never written.
+ */
+final class TrimmingWriter extends Writer {
+
+    private static final CharMatcher WHITESPACE = CharMatcher.whitespace();
+
+    private final Writer delegate;
+    private final StringBuilder pendingWhitespace = new StringBuilder();
+    private boolean started;
+
+    TrimmingWriter(Writer delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void write(char[] cbuf, int off, int len) throws IOException {
+        int end = off + len;
+        int segmentStart = off;
+        for (int i = off; i < end; i++) {
+            char character = cbuf[i];
+            if (WHITESPACE.matches(character)) {
+                delegate.write(cbuf, segmentStart, i - segmentStart);
+                segmentStart = i + 1;
+                if (started) {
+                    pendingWhitespace.append(character);
+                }
+            } else {
+                started = true;
+                if (pendingWhitespace.length() > 0) {
+                    delegate.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                }
+            }
+        }
+        delegate.write(cbuf, segmentStart, end - segmentStart);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        delegate.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+}
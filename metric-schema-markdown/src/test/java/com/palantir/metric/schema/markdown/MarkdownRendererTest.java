@@ -18,6 +18,7 @@ package com.palantir.metric.schema.markdown;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.google.common.base.Splitter;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.palantir.metric.schema.Documentation;
@@ -27,6 +28,9 @@ import com.palantir.metric.schema.MetricSchema;
 import com.palantir.metric.schema.MetricType;
 import com.palantir.metric.schema.TagDefinition;
 import com.palantir.metric.schema.TagValue;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 import org.junit.jupiter.api.Test;
 
 class MarkdownRendererTest {
@@ -361,4 +365,93 @@ class MarkdownRendererTest {
                 .usingComparator(new MarkdownRenderer.CoordinateComparator("com.palantir.foo:any"))
                 .isGreaterThan("com.palantir.foo:a");
     }
+
+    @Test
+    void testSampleRate() {
+        MetricSchema schema = MetricSchema.builder()
+                .namespaces(
+                        "namespace",
+                        MetricNamespace.builder()
+                                .docs(Documentation.of("namespace docs"))
+                                .metrics(
+                                        "metric",
+                                        MetricDefinition.builder()
+                                                .type(MetricType.TIMER)
+                                                .sampleRate(0.25)
+                                                .docs(Documentation.of("metric docs"))
+                                                .build())
+                                .build())
+                .build();
+        String markdown = MarkdownRenderer.render(
+                "com.palantir:test", ImmutableMap.of("com.palantir:test:1.0.0", ImmutableList.of(schema)));
+        assertThat(markdown).endsWith("- `namespace.metric` (timer, sampled at 0.25): metric docs");
+    }
+
+    @Test
+    void testNamespaceFingerprint() {
+        MetricDefinition meter = MetricDefinition.builder()
+                .type(MetricType.METER)
+                .docs(Documentation.of("meter docs"))
+                .build();
+        MetricDefinition timer = MetricDefinition.builder()
+                .type(MetricType.TIMER)
+                .docs(Documentation.of("timer docs"))
+                .build();
+        Namespace first = namespace(ImmutableMap.of("a", meter, "b", timer));
+        // The fingerprint is independent of metric order and docs, but not of metric types.
+        assertThat(namespace(ImmutableMap.of("b", timer, "a", meter)).fingerprint())
+                .isEqualTo(first.fingerprint());
+        assertThat(namespace(ImmutableMap.of(
+                                "a",
+                                MetricDefinition.builder()
+                                        .from(meter)
+                                        .docs(Documentation.of("other docs"))
+                                        .build(),
+                                "b",
+                                timer))
+                        .fingerprint())
+                .isEqualTo(first.fingerprint());
+        assertThat(namespace(ImmutableMap.of("a", timer, "b", meter)).fingerprint())
+                .isNotEqualTo(first.fingerprint());
+    }
+
+    @Test
+    void testManySectionsRenderedInOrder() {
+        ImmutableMap.Builder<String, List<MetricSchema>> schemas = ImmutableMap.builder();
+        for (int i = 0; i < 200; i++) {
+            schemas.put(
+                    String.format("com.palantir.group%03d:artifact:1.0.0", i),
+                    ImmutableList.of(MetricSchema.builder()
+                            .namespaces(
+                                    "namespace" + i,
+                                    MetricNamespace.builder()
+                                            .docs(Documentation.of("namespace docs"))
+                                            .metrics(
+                                                    "metric",
+                                                    MetricDefinition.builder()
+                                                            .type(MetricType.METER)
+                                                            .docs(Documentation.of("metric docs"))
+                                                            .build())
+                                            .build())
+                            .build()));
+        }
+        String markdown = MarkdownRenderer.render("com.palantir.group150:artifact", schemas.build());
+        List<String> coordinates = Splitter.on('\n')
+                .splitToStream(markdown)
+                .filter(line -> line.startsWith("`"))
+                .collect(Collectors.toList());
+        assertThat(coordinates).hasSize(200);
+        assertThat(coordinates.get(0)).isEqualTo("`com.palantir.group150:artifact`");
+        assertThat(coordinates.subList(1, 200)).isSorted();
+    }
+
+    private static Namespace namespace(Map<String, MetricDefinition> metrics) {
+        return Namespace.builder()
+                .name("namespace")
+                .definition(MetricNamespace.builder()
+                        .docs(Documentation.of("namespace docs"))
+                        .metrics(metrics)
+                        .build())
+                .build();
+    }
 }
@@ -0,0 +1,51 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.markdown;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.base.CharMatcher;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import org.junit.jupiter.api.Test;
+
+class TrimmingWriterTest {
+
+    @Test
+    void testMatchesTrimFrom() throws IOException {
+        String input = " \n# Metrics\n\n## Section \n\n- `metric` (meter): docs \n\n \t";
+        for (int chunkSize = 1; chunkSize <= input.length(); chunkSize++) {
+            StringWriter output = new StringWriter();
+            try (Writer writer = new TrimmingWriter(output)) {
+                for (int i = 0; i < input.length(); i += chunkSize) {
+                    writer.write(input, i, Math.min(chunkSize, input.length() - i));
+                }
+            }
+            assertThat(output.toString()).isEqualTo(CharMatcher.whitespace().trimFrom(input));
+        }
+    }
+
+    @Test
+    void testWhitespaceOnly() throws IOException {
+        StringWriter output = new StringWriter();
+        try (Writer writer = new TrimmingWriter(output)) {
+            writer.write(" \n\t ");
+        }
+        assertThat(output.toString()).isEmpty();
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.processor;
+
+import com.palantir.goethe.Goethe;
+import com.palantir.metric.schema.JavaGenerator;
+import com.palantir.metric.schema.MetricSchema;
+import com.palantir.metric.schema.lang.MetricSchemaCompiler;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
+import javax.tools.StandardLocation;
+
+/**
+ * Generates metric utility classes for packages annotated with {@link MetricSchemas} as part of compilation, as an
+ * alternative to the {@code generateMetrics} gradle task.
+ *
+ * <p>The processor is deliberately not registered as incremental with Gradle. It reads schema files from the class
+ * path, which incremental processors may not do, so Gradle recompiles fully when it runs.
+ */
+public final class MetricSchemaProcessor extends AbstractProcessor {
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Set.of(MetricSchemas.class.getCanonicalName());
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> _annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(MetricSchemas.class)) {
+            try {
+                generate((PackageElement) element, element.getAnnotation(MetricSchemas.class));
+            } catch (IOException | RuntimeException e) {
+                processingEnv
+                        .getMessager()
+                        .printMessage(
+                                Diagnostic.Kind.ERROR,
+                                "Failed to generate metric utilities: " + e.getMessage(),
+                                element);
+            }
+        }
+        return false;
+    }
+
+    private void generate(PackageElement element, MetricSchemas annotation) throws IOException {
+        List<Path> inputFiles = new ArrayList<>(annotation.value().length);
+        for (String resource : annotation.value()) {
+            inputFiles.add(resolve(resource));
+        }
+        Optional<String> libraryName =
+                annotation.libraryName().isEmpty() ? Optional.empty() : Optional.of(annotation.libraryName());
+        String packageName = element.getQualifiedName().toString();
+        for (MetricSchema schema : MetricSchemaCompiler.compileAll(inputFiles)) {
+            JavaGenerator.generateJavaFiles(schema, libraryName, Optional.empty(), packageName)
+                    .forEach(javaFile -> Goethe.formatAndEmit(javaFile, processingEnv.getFiler()));
+        }
+    }
+
+    private Path resolve(String resource) throws IOException {
+        URI uri = processingEnv
+                .getFiler()
+                .getResource(StandardLocation.CLASS_PATH, "", resource)
+                .toUri();
+        if (!"file".equals(uri.getScheme())) {
+            throw new IOException("Metric schema must be a file on the compile classpath: " + uri);
+        }
+        return Path.of(uri);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * (c) Copyright 2023 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.metric.schema.processor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MetricSchemaProcessorTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testGeneratesUtilityClass() throws IOException {
+        Path schemas = Files.createDirectories(tempDir.resolve("schemas"));
+        Files.writeString(
+                schemas.resolve("server.yml"),
+                String.join(
+                        "\n",
+                        "namespaces:",
+                        "  server:",
+                        "    docs: Server metrics.",
+                        "    metrics:",
+                        "      requests:",
+                        "        type: meter",
+                        "        docs: Rate of requests."));
+        Path source = Files.createDirectories(tempDir.resolve("src/com/palantir/test"))
+                .resolve("package-info.java");
+        Files.writeString(
+                source,
+                "@com.palantir.metric.schema.processor.MetricSchemas(value = \"server.yml\", libraryName = \"test\")\n"
+                        + "package com.palantir.test;\n");
+        Path generated = Files.createDirectories(tempDir.resolve("generated"));
+
+        StringWriter diagnostics = new StringWriter();
+        assertThat(compile(source, schemas, generated, diagnostics))
+                .as(diagnostics.toString())
+                .isTrue();
+        assertThat(generated.resolve("com/palantir/test/ServerMetrics.java"))
+                .content()
+                .contains("public final class ServerMetrics")
+                .contains("\"server.requests\"")
+                .contains("LIBRARY_NAME = \"test\"");
+    }
+
+    @Test
+    void testReportsMissingSchema() throws IOException {
+        Path source = Files.createDirectories(tempDir.resolve("src/com/palantir/test"))
+                .resolve("package-info.java");
+        Files.writeString(
+                source,
+                "@com.palantir.metric.schema.processor.MetricSchemas(\"missing.yml\")\npackage com.palantir.test;\n");
+        Path generated = Files.createDirectories(tempDir.resolve("generated"));
+
+        StringWriter diagnostics = new StringWriter();
+        assertThat(compile(source, tempDir, generated, diagnostics)).isFalse();
+        assertThat(diagnostics.toString()).contains("Failed to generate metric utilities");
+    }
+
+    private static boolean compile(Path source, Path schemas, Path generated, StringWriter diagnostics)
+            throws IOException {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, null)) {
+            String classpath = System.getProperty("java.class.path") + File.pathSeparator + schemas;
+            List<String> options = List.of(
+                    "-proc:only",
+                    "-processor",
+                    MetricSchemaProcessor.class.getName(),
+                    "-classpath",
+                    classpath,
+                    "-s",
+                    generated.toString());
+            return compiler.getTask(
+                            diagnostics, fileManager, null, options, null, fileManager.getJavaFileObjects(source))
+                    .call();
+        }
+    }
+}